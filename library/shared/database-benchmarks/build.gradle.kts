@@ -0,0 +1,29 @@
+plugins {
+    alias(libs.plugins.jmh)
+}
+
+crystalModule {
+    name.set("Database Benchmarks")
+    moduleName.set("database-benchmarks")
+    description.set("JMH benchmarks for the database connector")
+    library.set("shared")
+}
+
+dependencies {
+    jmh(project(":shared:database"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+}
+
+tasks {
+    // benchmarks are not a library
+    withType<AbstractPublishToMaven>().configureEach {
+        enabled = false
+    }
+}
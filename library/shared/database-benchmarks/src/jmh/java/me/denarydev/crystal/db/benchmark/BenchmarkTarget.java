@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.benchmark;
+
+import me.denarydev.crystal.db.DatabaseManager;
+import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.connection.ConnectionFactory.ConnectionFunction;
+import me.denarydev.crystal.db.settings.FlatfileConnectionSettings;
+import me.denarydev.crystal.db.settings.HikariConnectionSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A database under benchmark.
+ *
+ * @author DenaryDev
+ * @since 19:10 18.10.2026
+ */
+interface BenchmarkTarget extends AutoCloseable {
+
+    /**
+     * Acquires a connection the same way the factory does for callbacks.
+     */
+    Connection connection() throws SQLException;
+
+    <T> T execute(ConnectionFunction<T> function) throws SQLException;
+
+    /**
+     * Executes a read-only function, on a replica if the target has one.
+     */
+    <T> T read(ConnectionFunction<T> function) throws SQLException;
+
+    @Override
+    void close() throws SQLException;
+
+    /**
+     * Creates a target backed by a real flatfile {@link DatabaseManager}.
+     */
+    static BenchmarkTarget flatfile(DatabaseType type, Path dataFolder) {
+        final var manager = new DatabaseManager();
+        manager.initialize(new FlatfileConnectionSettings() {
+            @Override
+            public @NotNull Path dataFolder() {
+                return dataFolder;
+            }
+
+            @Override
+            public @NotNull String pluginName() {
+                return "Benchmark";
+            }
+
+            @Override
+            public @NotNull DatabaseType databaseType() {
+                return type;
+            }
+
+            @Override
+            public @NotNull Logger logger() {
+                return LoggerFactory.getLogger("Benchmark");
+            }
+        });
+
+        final var factory = manager.connectionFactory();
+        return new BenchmarkTarget() {
+            @Override
+            public Connection connection() throws SQLException {
+                return factory.connection();
+            }
+
+            @Override
+            public <T> T execute(ConnectionFunction<T> function) throws SQLException {
+                return factory.execute(function);
+            }
+
+            @Override
+            public <T> T read(ConnectionFunction<T> function) throws SQLException {
+                return factory.execute(true, function);
+            }
+
+            @Override
+            public void close() {
+                manager.shutdown();
+            }
+        };
+    }
+
+    /**
+     * Creates a local stand-in for remote databases: a {@link DatabaseManager} of the remote type,
+     * so its Hikari connection factory, circuit breaker and replica routing are measured, which connects
+     * through the H2 driver to an in-memory database in the compatibility mode of the remote type.
+     * The replica is a second pool on the same database.
+     */
+    static BenchmarkTarget remoteStandIn(DatabaseType type, String mode) {
+        final var manager = new DatabaseManager();
+        manager.initialize(new HikariConnectionSettings() {
+            @Override
+            public @NotNull String pluginName() {
+                return "Benchmark";
+            }
+
+            @Override
+            public @NotNull DatabaseType databaseType() {
+                return type;
+            }
+
+            @Override
+            public @NotNull Logger logger() {
+                return LoggerFactory.getLogger("Benchmark");
+            }
+
+            @Override
+            public @NotNull String address() {
+                return "primary";
+            }
+
+            @Override
+            public @NotNull String database() {
+                return "benchmark";
+            }
+
+            @Override
+            public @NotNull String username() {
+                return "sa";
+            }
+
+            @Override
+            public @NotNull String password() {
+                return "";
+            }
+
+            @Override
+            public int maxPoolSize() {
+                return 6;
+            }
+
+            @Override
+            public int minimumIdle() {
+                return 6;
+            }
+
+            @Override
+            public @NotNull List<String> replicas() {
+                return List.of("replica");
+            }
+
+            @Override
+            public @Nullable String jdbcUrl(@NotNull String address, @NotNull String port) {
+                // the driver properties of the remote type are unknown to H2
+                return "jdbc:h2:mem:benchmark-" + mode.toLowerCase() + ";MODE=" + mode + ";DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE";
+            }
+        });
+
+        final var factory = manager.connectionFactory();
+        return new BenchmarkTarget() {
+            @Override
+            public Connection connection() throws SQLException {
+                return factory.connection();
+            }
+
+            @Override
+            public <T> T execute(ConnectionFunction<T> function) throws SQLException {
+                return factory.execute(function);
+            }
+
+            @Override
+            public <T> T read(ConnectionFunction<T> function) throws SQLException {
+                return factory.execute(true, function);
+            }
+
+            @Override
+            public void close() {
+                manager.shutdown();
+            }
+        };
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.benchmark;
+
+import me.denarydev.crystal.db.DatabaseType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of the basic operations of the database layer.
+ * <p>
+ * Run with {@code ./gradlew :shared:database-benchmarks:jmh}.
+ *
+ * @author DenaryDev
+ * @since 19:25 18.10.2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DatabaseBenchmark {
+    private static final int PRELOADED_ROWS = 10000;
+    private static final int BATCH_SIZE = 100;
+    private static final int TRANSACTION_SIZE = 10;
+
+    @Param({"SQLITE", "H2", "MYSQL_STAND_IN", "POSTGRESQL_STAND_IN"})
+    public String target;
+
+    private Path dataFolder;
+    private BenchmarkTarget database;
+    private final AtomicLong ids = new AtomicLong(PRELOADED_ROWS);
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, SQLException {
+        this.dataFolder = Files.createTempDirectory("crystal-benchmark");
+        this.database = switch (this.target) {
+            case "SQLITE" -> BenchmarkTarget.flatfile(DatabaseType.SQLITE, this.dataFolder);
+            case "H2" -> BenchmarkTarget.flatfile(DatabaseType.H2, this.dataFolder);
+            case "MYSQL_STAND_IN" -> BenchmarkTarget.remoteStandIn(DatabaseType.MYSQL, "MySQL");
+            case "POSTGRESQL_STAND_IN" -> BenchmarkTarget.remoteStandIn(DatabaseType.POSTGRESQL, "PostgreSQL");
+            default -> throw new IllegalArgumentException("Unknown target " + this.target);
+        };
+
+        this.database.execute(connection -> {
+            try (final var statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS bench (id BIGINT PRIMARY KEY, name VARCHAR(32), amount INT)");
+            }
+            connection.setAutoCommit(false);
+            try (final var statement = connection.prepareStatement("INSERT INTO bench (id, name, amount) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < PRELOADED_ROWS; i++) {
+                    statement.setLong(1, i);
+                    statement.setString(2, "player-" + i);
+                    statement.setInt(3, i);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException, IOException {
+        this.database.close();
+        try (final Stream<Path> files = Files.walk(this.dataFolder)) {
+            for (final var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void acquireConnection(Blackhole blackhole) throws SQLException {
+        try (final var connection = this.database.connection()) {
+            blackhole.consume(connection);
+        }
+    }
+
+    @Benchmark
+    public int insertRow() throws SQLException {
+        final long id = this.ids.getAndIncrement();
+        return this.database.execute(connection -> {
+            try (final var statement = connection.prepareStatement("INSERT INTO bench (id, name, amount) VALUES (?, ?, ?)")) {
+                statement.setLong(1, id);
+                statement.setString(2, "player-" + id);
+                statement.setInt(3, (int) id);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Benchmark
+    public int selectRow() throws SQLException {
+        final long id = ThreadLocalRandom.current().nextLong(PRELOADED_ROWS);
+        return this.database.read(connection -> {
+            try (final var statement = connection.prepareStatement("SELECT amount FROM bench WHERE id = ?")) {
+                statement.setLong(1, id);
+                try (final var result = statement.executeQuery()) {
+                    return result.next() ? result.getInt(1) : -1;
+                }
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] batchInsert() throws SQLException {
+        final long first = this.ids.getAndAdd(BATCH_SIZE);
+        return this.database.execute(connection -> {
+            try (final var statement = connection.prepareStatement("INSERT INTO bench (id, name, amount) VALUES (?, ?, ?)")) {
+                for (long id = first; id < first + BATCH_SIZE; id++) {
+                    statement.setLong(1, id);
+                    statement.setString(2, "player-" + id);
+                    statement.setInt(3, (int) id);
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRANSACTION_SIZE)
+    public void transaction() throws SQLException {
+        this.database.execute(connection -> {
+            final var random = ThreadLocalRandom.current();
+            final var autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (final var statement = connection.prepareStatement("UPDATE bench SET amount = amount + 1 WHERE id = ?")) {
+                for (int i = 0; i < TRANSACTION_SIZE; i++) {
+                    statement.setLong(1, random.nextLong(PRELOADED_ROWS));
+                    statement.executeUpdate();
+                }
+                if (autoCommit) {
+                    connection.commit();
+                }
+            } catch (SQLException ex) {
+                if (autoCommit) {
+                    connection.rollback();
+                }
+                throw ex;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+}
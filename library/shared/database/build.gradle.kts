@@ -8,4 +8,7 @@ crystalModule {
 dependencies {
     compileOnlyApi(libs.annotations)
     api(libs.bundles.sql)
+
+    testImplementation(platform(libs.junit.bom))
+    testImplementation("org.junit.jupiter:junit-jupiter")
 }
@@ -7,17 +7,54 @@
  */
 package me.denarydev.crystal.db;
 
+import me.denarydev.crystal.db.batch.BatchBinder;
+import me.denarydev.crystal.db.batch.WriteBehindQueue;
+import me.denarydev.crystal.db.cache.CacheLoader;
+import me.denarydev.crystal.db.cache.CacheWriter;
+import me.denarydev.crystal.db.cache.QueryCache;
+import me.denarydev.crystal.db.concurrent.CircuitBreaker;
+import me.denarydev.crystal.db.concurrent.DatabaseThreadFactory;
+import me.denarydev.crystal.db.concurrent.QueryExecutor;
 import me.denarydev.crystal.db.connection.ConnectionFactory;
+import me.denarydev.crystal.db.connection.ConnectionFactory.ConnectionCallback;
+import me.denarydev.crystal.db.connection.ConnectionFactory.ConnectionFunction;
+import me.denarydev.crystal.db.connection.TransactionTemplate;
 import me.denarydev.crystal.db.connection.file.H2ConnectionFactory;
 import me.denarydev.crystal.db.connection.file.SQLiteConnectionFactory;
 import me.denarydev.crystal.db.connection.hikari.MariaDBConnectionFactory;
 import me.denarydev.crystal.db.connection.hikari.MySqlConnectionFactory;
 import me.denarydev.crystal.db.connection.hikari.PostgresConnectionFactory;
+import me.denarydev.crystal.db.mapping.RecordMapper;
+import me.denarydev.crystal.db.mapping.ResultStream;
+import me.denarydev.crystal.db.mapping.RowMapper;
+import me.denarydev.crystal.db.mapping.StatementBinder;
+import me.denarydev.crystal.db.metrics.DatabaseMetrics;
+import me.denarydev.crystal.db.migration.SchemaMigrator;
 import me.denarydev.crystal.db.settings.ConnectionSettings;
 import me.denarydev.crystal.db.settings.FlatfileConnectionSettings;
 import me.denarydev.crystal.db.settings.HikariConnectionSettings;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
  * @author DenaryDev
@@ -25,11 +62,37 @@ import org.jetbrains.annotations.NotNull;
  */
 @ApiStatus.AvailableSince("2.1.0")
 public final class DatabaseManager {
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final DatabaseManager root;
+    private final String name;
+    private final Map<String, DatabaseManager> datasources = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor sharedWorkers;
+    private int reservedWorkers;
+
     private ConnectionSettings settings;
     private ConnectionFactory connectionFactory;
+    private ExecutorService workers;
+    // workers this datasource reserved in the shared pool
+    private int reservation;
+    private QueryExecutor executor;
+    private QueryExecutor readExecutor;
+    private ScheduledExecutorService scheduler;
+    private final List<WriteBehindQueue<?, ?>> writeBehindQueues = new CopyOnWriteArrayList<>();
+
+    public DatabaseManager() {
+        this.root = null;
+        this.name = null;
+    }
+
+    private DatabaseManager(DatabaseManager root, String name) {
+        this.root = root;
+        this.name = name;
+    }
 
     public void initialize(@NotNull ConnectionSettings settings) throws IllegalArgumentException {
         this.settings = settings;
+        final var baseName = this.name == null ? settings.pluginName() : settings.pluginName() + "-" + this.name;
 
         final var type = settings.databaseType();
         if (type.remote()) {
@@ -40,23 +103,403 @@ public final class DatabaseManager {
                 case POSTGRESQL -> this.connectionFactory = new PostgresConnectionFactory(remoteSettings);
             }
         } else {
-            final var dataFolder = ((FlatfileConnectionSettings) settings).dataFolder();
+            final var flatfileSettings = (FlatfileConnectionSettings) settings;
+            final var dataFolder = flatfileSettings.dataFolder();
             switch (type) {
                 case SQLITE -> {
-                    final var file = dataFolder.resolve(settings.pluginName().toLowerCase() + "-sqlite.db");
-                    this.connectionFactory = new SQLiteConnectionFactory(file);
+                    final var file = dataFolder.resolve(baseName.toLowerCase() + "-sqlite.db");
+                    this.connectionFactory = new SQLiteConnectionFactory(flatfileSettings, file);
                 }
                 case H2 -> {
-                    final var file = dataFolder.resolve(settings.pluginName().toLowerCase() + "-h2");
-                    this.connectionFactory = new H2ConnectionFactory(file);
+                    final var file = dataFolder.resolve(baseName.toLowerCase() + "-h2");
+                    this.connectionFactory = new H2ConnectionFactory(flatfileSettings, file);
                 }
             }
         }
 
         connectionFactory.initialize();
+
+        // all datasources of a manager share one worker pool and one scheduler
+        if (this.root == null) {
+            this.sharedWorkers = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new DatabaseThreadFactory(settings.pluginName() + "-Database-Worker"));
+            this.sharedWorkers.allowCoreThreadTimeOut(true);
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(new DatabaseThreadFactory(settings.pluginName() + "-Database-Scheduler"));
+        } else {
+            this.scheduler = this.root.scheduler;
+        }
+        final var owner = this.root != null ? this.root : this;
+
+        // remote pools run one query per connection, flatfile databases queue queries for their writer thread
+        final var parallelism = connectionFactory.parallelism();
+        this.workers = connectionFactory.createExecutor(baseName + "-Database-Worker");
+        if (this.workers == null) {
+            owner.reserveWorkers(parallelism);
+            this.reservation += parallelism;
+        }
+        this.executor = new QueryExecutor(baseName, this.workers != null ? this.workers : owner.sharedWorkers, settings.logger(), parallelism, settings.queueCapacity());
+
+        // dedicated read-only connections get their own lane, so reads don't wait behind writes
+        final var readParallelism = connectionFactory.readParallelism();
+        if (readParallelism > 0) {
+            owner.reserveWorkers(readParallelism);
+            this.reservation += readParallelism;
+            this.readExecutor = new QueryExecutor(baseName + "-Reader", owner.sharedWorkers, settings.logger(), readParallelism, settings.queueCapacity());
+        }
+        connectionFactory.scheduleMaintenance(this.scheduler);
+    }
+
+    /**
+     * Resizes the shared worker pool for a new or removed datasource, up to the worker budget.
+     */
+    private synchronized void reserveWorkers(int amount) {
+        this.reservedWorkers += amount;
+        final var size = Math.max(1, Math.min(this.reservedWorkers, this.settings.workerBudget()));
+        if (size > this.sharedWorkers.getMaximumPoolSize()) {
+            this.sharedWorkers.setMaximumPoolSize(size);
+            this.sharedWorkers.setCorePoolSize(size);
+        } else {
+            this.sharedWorkers.setCorePoolSize(size);
+            this.sharedWorkers.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Registers an additional named datasource, e.g. a local SQLite cache next to a shared MySQL database.
+     * <p>
+     * The datasource shares the worker pool and the scheduler of this manager, its queries count against
+     * the {@link ConnectionSettings#workerBudget() worker budget} of this manager. Flatfile databases
+     * of additional datasources are stored as {@code <plugin>-<name>-<type>} files.
+     * It is shut down together with this manager.
+     *
+     * @param name     unique name of the datasource
+     * @param settings settings of the datasource
+     * @return the manager of the datasource
+     * @throws IllegalArgumentException if the name is already used
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public @NotNull DatabaseManager register(@NotNull String name, @NotNull ConnectionSettings settings) throws IllegalArgumentException {
+        if (this.root != null) {
+            return this.root.register(name, settings);
+        }
+        if (this.sharedWorkers == null) {
+            throw new IllegalStateException("The database manager is not initialized");
+        }
+
+        final var datasource = new DatabaseManager(this, name);
+        if (this.datasources.putIfAbsent(name, datasource) != null) {
+            throw new IllegalArgumentException("Datasource " + name + " is already registered");
+        }
+        try {
+            datasource.initialize(settings);
+        } catch (RuntimeException ex) {
+            this.datasources.remove(name);
+            // don't leak the connections and the workers of the partially initialized datasource
+            try {
+                datasource.close();
+            } catch (RuntimeException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            if (datasource.reservation > 0) {
+                reserveWorkers(-datasource.reservation);
+            }
+            throw ex;
+        }
+        return datasource;
+    }
+
+    /**
+     * @param name name of the datasource
+     * @return the manager of the datasource
+     * @throws IllegalArgumentException if there is no datasource with the name
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public @NotNull DatabaseManager datasource(@NotNull String name) throws IllegalArgumentException {
+        final var owner = this.root != null ? this.root : this;
+        final var datasource = owner.datasources.get(name);
+        if (datasource == null) {
+            throw new IllegalArgumentException("Unknown datasource " + name);
+        }
+        return datasource;
+    }
+
+    /**
+     * @return additional datasources by name, excluding the primary one
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public @NotNull Map<String, DatabaseManager> datasources() {
+        final var owner = this.root != null ? this.root : this;
+        return Collections.unmodifiableMap(owner.datasources);
+    }
+
+    /**
+     * Executes a callback asynchronously in the database executor.
+     *
+     * @param callback The callback to execute once the connection is retrieved
+     * @return a future which is completed when the callback is executed
+     * @see ConnectionFactory#connect(ConnectionCallback)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public @NotNull CompletableFuture<Void> connectAsync(@NotNull ConnectionCallback callback) {
+        return queryAsync(connection -> {
+            callback.accept(connection);
+            return null;
+        });
+    }
+
+    /**
+     * Executes a function asynchronously in the database executor.
+     * <p>
+     * If the executor queue is full, the returned future is completed
+     * exceptionally with {@link RejectedExecutionException}.
+     *
+     * @param function The function to execute once the connection is retrieved
+     * @return a future which is completed with the result of the function
+     * @see ConnectionFactory#execute(ConnectionFunction)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public <T> @NotNull CompletableFuture<T> queryAsync(@NotNull ConnectionFunction<T> function) {
+        return queryAsync(false, function);
+    }
+
+    /**
+     * Executes a function asynchronously in a transaction, retrying it when the database
+     * aborts the transaction because of a deadlock or a serialization failure.
+     *
+     * @param function The function to execute in the transaction
+     * @return a future which is completed with the result of the function
+     * @see ConnectionFactory#transaction(ConnectionFunction)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public <T> @NotNull CompletableFuture<T> transactionAsync(@NotNull ConnectionFunction<T> function) {
+        return transactionAsync(function, TransactionTemplate.DEFAULT_ATTEMPTS);
+    }
+
+    /**
+     * Executes a function asynchronously in a transaction, retrying it when the database
+     * aborts the transaction because of a deadlock or a serialization failure.
+     *
+     * @param function    The function to execute in the transaction
+     * @param maxAttempts maximum amount of times the function is executed
+     * @return a future which is completed with the result of the function
+     * @see ConnectionFactory#transaction(ConnectionFunction, int)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public <T> @NotNull CompletableFuture<T> transactionAsync(@NotNull ConnectionFunction<T> function, int maxAttempts) {
+        return queryAsync(TransactionTemplate.of(this.connectionFactory.implementationType(), function, maxAttempts));
+    }
+
+    /**
+     * Executes a function asynchronously in the database executor.
+     * <p>
+     * Read-only functions may be executed on dedicated read-only connections
+     * and must not modify the database.
+     *
+     * @param readOnly whether the function only reads data
+     * @param function The function to execute once the connection is retrieved
+     * @return a future which is completed with the result of the function
+     * @see ConnectionFactory#execute(boolean, ConnectionFunction)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public <T> @NotNull CompletableFuture<T> queryAsync(boolean readOnly, @NotNull ConnectionFunction<T> function) {
+        final var future = new CompletableFuture<T>();
+        // capture the call site on the calling thread, workers only see the executor
+        final var tracked = this.connectionFactory.metrics().tracked(function);
+        try {
+            if (!readOnly) {
+                this.executor.execute(() -> this.connectionFactory.execute(tracked, future), future::completeExceptionally);
+            } else {
+                final var executor = this.readExecutor != null ? this.readExecutor : this.executor;
+                executor.execute(() -> {
+                    try {
+                        future.complete(this.connectionFactory.execute(true, tracked));
+                    } catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+                }, future::completeExceptionally);
+            }
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
     }
 
+    /**
+     * Executes a query and lazily maps its rows, fetching 1000 rows per round-trip.
+     * <p>
+     * The query runs on the calling thread on a dedicated connection, which is closed with the stream.
+     *
+     * @param sql    query
+     * @param binder binds query parameters
+     * @param mapper maps a row
+     * @return stream of the mapped rows, must be closed
+     * @throws SQLException if the query fails
+     * @see ResultStream
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public <T> @NotNull Stream<T> stream(@NotNull String sql, @NotNull StatementBinder binder, @NotNull RowMapper<T> mapper) throws SQLException {
+        return ResultStream.open(this.connectionFactory, sql, binder, mapper, DEFAULT_FETCH_SIZE).stream();
+    }
+
+    /**
+     * Executes a query and lazily maps its rows to records, fetching 1000 rows per round-trip.
+     *
+     * @param sql    query
+     * @param binder binds query parameters
+     * @param type   record type
+     * @return stream of the mapped rows, must be closed
+     * @throws SQLException if the query fails
+     * @see #stream(String, StatementBinder, RowMapper)
+     * @see RecordMapper
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public <R extends Record> @NotNull Stream<R> stream(@NotNull String sql, @NotNull StatementBinder binder, @NotNull Class<R> type) throws SQLException {
+        return ResultStream.open(this.connectionFactory, sql, binder, type, DEFAULT_FETCH_SIZE).stream();
+    }
+
+    /**
+     * Creates a write-behind queue with batches of 500 writes, flushed at least every second.
+     *
+     * @see #createWriteBehindQueue(String, BatchBinder, int, int, long, TimeUnit)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public <K, V> @NotNull WriteBehindQueue<K, V> createWriteBehindQueue(@NotNull String sql, @NotNull BatchBinder<V> binder) {
+        return createWriteBehindQueue(sql, binder, 500, 10000, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates a write-behind queue for the given statement.
+     * <p>
+     * The queue is flushed when it reaches {@code batchSize} writes or when the flush interval elapses,
+     * and is flushed for the last time on {@link #shutdown()}.
+     *
+     * @param sql           statement to execute for each buffered value
+     * @param binder        binds a buffered value to the statement parameters
+     * @param batchSize     amount of writes sent to the database at once
+     * @param maxPending    amount of buffered writes after which writers are blocked
+     * @param flushInterval maximum time a write is kept in the buffer
+     * @param unit          the time unit of the flush interval
+     * @return the write-behind queue
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public <K, V> @NotNull WriteBehindQueue<K, V> createWriteBehindQueue(@NotNull String sql, @NotNull BatchBinder<V> binder,
+                                                                         int batchSize, int maxPending, long flushInterval, @NotNull TimeUnit unit) {
+        // flushes run in the query executor, so blocking JDBC calls don't stall other scheduled tasks
+        final var queue = new WriteBehindQueue<K, V>(this.connectionFactory, this.executor, settings.logger(), sql, binder, batchSize, maxPending);
+        this.scheduler.scheduleWithFixedDelay(queue::flushAsync, flushInterval, flushInterval, unit);
+        this.writeBehindQueues.add(queue);
+        return queue;
+    }
+
+    /**
+     * Creates a read-only cache for database lookups.
+     *
+     * @see #createCache(CacheLoader, CacheWriter, int, long, TimeUnit)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public <K, V> @NotNull QueryCache<K, V> createCache(@NotNull CacheLoader<K, V> loader, int maximumSize, long expireAfterWrite, @NotNull TimeUnit unit) {
+        return createCache(loader, null, maximumSize, expireAfterWrite, unit);
+    }
+
+    /**
+     * Creates a read-through, write-through cache for database lookups.
+     * <p>
+     * Values are loaded with read-only queries and written with the database executor.
+     * Expired entries are removed periodically by the database scheduler.
+     *
+     * @param loader           loads missing values
+     * @param writer           writes stored values, or {@code null} for a read-only cache
+     * @param maximumSize      maximum amount of entries
+     * @param expireAfterWrite time after which an entry is reloaded, or 0 to keep entries until evicted by size
+     * @param unit             the time unit of the expiration time
+     * @return the cache
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public <K, V> @NotNull QueryCache<K, V> createCache(@NotNull CacheLoader<K, V> loader, @Nullable CacheWriter<K, V> writer,
+                                                      int maximumSize, long expireAfterWrite, @NotNull TimeUnit unit) {
+        final var cache = new QueryCache<>(this, loader, writer, maximumSize, expireAfterWrite, unit);
+        if (expireAfterWrite > 0) {
+            this.scheduler.scheduleWithFixedDelay(cache::cleanUp, expireAfterWrite, expireAfterWrite, unit);
+        }
+        return cache;
+    }
+
+    /**
+     * Applies pending migration scripts from the given classpath directory.
+     * <p>
+     * Applied migrations are recorded in the {@code <plugin>_schema_history} table.
+     *
+     * @param classLoader class loader to look up scripts with, usually the plugin class loader
+     * @param location    classpath directory of the scripts, e.g. {@code db/migration}
+     * @return amount of applied migrations
+     * @throws SQLException if a migration fails or an applied script was modified
+     * @throws IOException  if scripts cannot be read
+     * @see SchemaMigrator
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public int migrate(@NotNull ClassLoader classLoader, @NotNull String location) throws SQLException, IOException {
+        final var baseName = this.name == null ? settings.pluginName() : settings.pluginName() + "-" + this.name;
+        final var table = baseName.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_") + SchemaMigrator.HISTORY_TABLE_SUFFIX;
+        return new SchemaMigrator(this.connectionFactory, settings.logger(), table).migrate(classLoader, location);
+    }
+
+    /**
+     * Shuts down all datasources in parallel, waiting for queued queries and buffered writes.
+     * <p>
+     * Additional datasources are shut down with the manager they are registered in.
+     */
     public void shutdown() {
+        if (this.root != null) {
+            throw new IllegalStateException("Datasource " + this.name + " is shut down with its database manager");
+        }
+
+        // stop periodic tasks of all datasources
+        if (this.scheduler != null) {
+            this.scheduler.shutdown();
+            try {
+                this.scheduler.awaitTermination(settings.shutdownTimeout(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        final var others = new ArrayList<Thread>(this.datasources.size());
+        for (final var datasource : this.datasources.values()) {
+            final var thread = new Thread(datasource::close, settings.pluginName() + "-Database-Shutdown-" + datasource.name);
+            thread.start();
+            others.add(thread);
+        }
+        close();
+        for (final var thread : others) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.datasources.clear();
+
+        if (this.sharedWorkers != null) {
+            this.sharedWorkers.shutdown();
+        }
+    }
+
+    /**
+     * Writes everything that is still buffered, lets queued queries finish and closes the connections.
+     */
+    private void close() {
+        if (this.connectionFactory == null) {
+            return;
+        }
+        for (final var queue : this.writeBehindQueues) {
+            queue.close();
+        }
+        this.writeBehindQueues.clear();
+
+        // let queued queries finish before closing connections
+        drain(this.executor, this.workers);
+        drain(this.readExecutor, null);
+
         try {
             this.connectionFactory.shutdown();
         } catch (Exception e) {
@@ -64,6 +507,22 @@ public final class DatabaseManager {
         }
     }
 
+    private void drain(QueryExecutor executor, ExecutorService workers) {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(settings.shutdownTimeout(), TimeUnit.MILLISECONDS)) {
+                    settings.logger().warn("Timed out waiting for queued SQL queries to complete");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+
     public ConnectionSettings settings() {
         return settings;
     }
@@ -71,4 +530,41 @@ public final class DatabaseManager {
     public ConnectionFactory connectionFactory() {
         return connectionFactory;
     }
+
+    /**
+     * Returns metrics of the connection pool and labeled queries.
+     *
+     * @see DatabaseMetrics#timed(String, ConnectionFunction)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public DatabaseMetrics metrics() {
+        return connectionFactory.metrics();
+    }
+
+    /**
+     * Reports whether remote connections are currently available.
+     * <p>
+     * While the circuit breaker is {@link CircuitBreaker.State#OPEN open}, queries fail fast
+     * with {@link java.sql.SQLTransientConnectionException} instead of waiting for a connection timeout.
+     *
+     * @return the circuit breaker state, always {@link CircuitBreaker.State#CLOSED closed} for flatfile databases
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public @NotNull CircuitBreaker.State circuitState() {
+        final var breaker = this.connectionFactory.circuitBreaker();
+        return breaker != null ? breaker.state() : CircuitBreaker.State.CLOSED;
+    }
+
+    @ApiStatus.AvailableSince("2.2.0")
+    public QueryExecutor executor() {
+        return executor;
+    }
+
+    /**
+     * Returns the executor of read-only queries, or {@code null} if the factory has no dedicated read-only connections.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public @Nullable QueryExecutor readExecutor() {
+        return readExecutor;
+    }
 }
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.batch;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds a value to the parameters of a batched statement.
+ *
+ * @author DenaryDev
+ * @since 13:02 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+@FunctionalInterface
+public interface BatchBinder<V> {
+    void bind(@NotNull final PreparedStatement statement, @NotNull final V value) throws SQLException;
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.batch;
+
+import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.connection.ConnectionFactory;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Inserts or updates many rows with multi-row statements of the database dialect:
+ * <ul>
+ *     <li>MySQL: {@code INSERT ... AS new ON DUPLICATE KEY UPDATE}, which requires MySQL 8.0.19 or newer</li>
+ *     <li>MariaDB: {@code INSERT ... ON DUPLICATE KEY UPDATE} with {@code VALUES()}</li>
+ *     <li>PostgreSQL, SQLite: {@code INSERT ... ON CONFLICT (...) DO UPDATE}</li>
+ *     <li>H2: {@code MERGE INTO ... KEY (...)}</li>
+ * </ul>
+ * Values are split into statements of as many rows as the driver parameter limit allows,
+ * statements of the same size are sent as one batch.
+ * <p>
+ * The key columns must have a primary key or unique constraint. A single call must not contain
+ * the same key twice, PostgreSQL rejects statements updating a row more than once.
+ *
+ * @author DenaryDev
+ * @since 16:20 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class BulkUpsert<V> {
+    private static final int MAX_ROWS = 1000;
+    private static final int BATCH_SIZE = 16;
+
+    private final DatabaseType type;
+    private final Function<String, String> processor;
+    private final String table;
+    private final List<String> keyColumns;
+    private final List<String> updateColumns;
+    private final RowBinder<V> binder;
+    private final int columns;
+    private final int rowsPerStatement;
+    private final String fullStatement;
+
+    /**
+     * @param factory       connection factory, used for the dialect
+     * @param table         table name
+     * @param keyColumns    columns identifying a row
+     * @param updateColumns columns updated when the row exists, in binding order after the key columns
+     * @param binder        binds the key columns followed by the update columns of a value
+     */
+    public BulkUpsert(@NotNull ConnectionFactory factory, @NotNull String table, @NotNull List<String> keyColumns,
+                      @NotNull List<String> updateColumns, @NotNull RowBinder<V> binder) {
+        if (keyColumns.isEmpty()) {
+            throw new IllegalArgumentException("At least one key column is required");
+        }
+        this.type = factory.implementationType();
+        this.processor = factory.statementProcessor();
+        this.table = table;
+        this.keyColumns = List.copyOf(keyColumns);
+        this.updateColumns = List.copyOf(updateColumns);
+        this.binder = binder;
+        this.columns = this.keyColumns.size() + this.updateColumns.size();
+        this.rowsPerStatement = Math.max(1, Math.min(MAX_ROWS, parameterLimit(this.type) / this.columns));
+        // only full chunks are written repeatedly, the remainder differs between calls
+        this.fullStatement = generate(this.rowsPerStatement);
+    }
+
+    /**
+     * Inserts or updates the given values.
+     * <p>
+     * If the connection is in autocommit mode, all values are written in one transaction.
+     *
+     * @param connection the connection
+     * @param values     values to write
+     * @return amount of written values
+     * @throws SQLException if the statement fails
+     */
+    public int execute(@NotNull Connection connection, @NotNull Collection<? extends V> values) throws SQLException {
+        if (values.isEmpty()) {
+            return 0;
+        }
+
+        final var autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        try {
+            final var rows = new ArrayList<V>(values);
+            final var fullChunks = rows.size() / this.rowsPerStatement;
+            final var remainder = rows.size() % this.rowsPerStatement;
+
+            if (fullChunks > 0) {
+                try (final var statement = connection.prepareStatement(sql(this.rowsPerStatement))) {
+                    for (int chunk = 0; chunk < fullChunks; chunk++) {
+                        bind(statement, rows, chunk * this.rowsPerStatement, this.rowsPerStatement);
+                        statement.addBatch();
+                        if ((chunk + 1) % BATCH_SIZE == 0) {
+                            statement.executeBatch();
+                        }
+                    }
+                    if (fullChunks % BATCH_SIZE != 0) {
+                        statement.executeBatch();
+                    }
+                }
+            }
+            if (remainder > 0) {
+                try (final var statement = connection.prepareStatement(sql(remainder))) {
+                    bind(statement, rows, fullChunks * this.rowsPerStatement, remainder);
+                    statement.executeUpdate();
+                }
+            }
+
+            if (autoCommit) {
+                connection.commit();
+            }
+            return rows.size();
+        } catch (SQLException | RuntimeException ex) {
+            if (autoCommit) {
+                connection.rollback();
+            }
+            throw ex;
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the statement writing the given amount of rows.
+     *
+     * @param rows amount of rows
+     * @return the statement in the database dialect
+     */
+    public @NotNull String sql(int rows) {
+        return rows == this.rowsPerStatement ? this.fullStatement : generate(rows);
+    }
+
+    /**
+     * @return maximum amount of rows written by one statement
+     */
+    public int rowsPerStatement() {
+        return this.rowsPerStatement;
+    }
+
+    private void bind(PreparedStatement statement, List<V> rows, int from, int count) throws SQLException {
+        for (int i = 0; i < count; i++) {
+            this.binder.bind(statement, i * this.columns, rows.get(from + i));
+        }
+    }
+
+    private String generate(int rows) {
+        final var builder = new StringBuilder(64 + rows * (this.columns * 3 + 3));
+        final var columnList = columnList();
+        if (this.type == DatabaseType.H2) {
+            builder.append("MERGE INTO '").append(this.table).append("' (").append(columnList)
+                .append(") KEY (").append(quote(this.keyColumns)).append(") VALUES ");
+            appendRows(builder, rows);
+            return this.processor.apply(builder.toString());
+        }
+
+        builder.append("INSERT INTO '").append(this.table).append("' (").append(columnList).append(") VALUES ");
+        appendRows(builder, rows);
+        switch (this.type) {
+            case MYSQL, MARIADB -> {
+                // VALUES() is deprecated since MySQL 8.0.20 in favour of a row alias, which MariaDB doesn't support
+                final var rowAlias = this.type == DatabaseType.MYSQL;
+                if (rowAlias) {
+                    builder.append(" AS new");
+                }
+                builder.append(" ON DUPLICATE KEY UPDATE ");
+                // without update columns, rewrite the first key to itself to ignore existing rows
+                final var columns = this.updateColumns.isEmpty() ? this.keyColumns.subList(0, 1) : this.updateColumns;
+                for (int i = 0; i < columns.size(); i++) {
+                    if (i > 0) {
+                        builder.append(", ");
+                    }
+                    builder.append('\'').append(columns.get(i)).append("' = ");
+                    if (rowAlias) {
+                        builder.append("new.'").append(columns.get(i)).append('\'');
+                    } else {
+                        builder.append("VALUES('").append(columns.get(i)).append("')");
+                    }
+                }
+            }
+            default -> {
+                builder.append(" ON CONFLICT (").append(quote(this.keyColumns)).append(')');
+                if (this.updateColumns.isEmpty()) {
+                    builder.append(" DO NOTHING");
+                } else {
+                    builder.append(" DO UPDATE SET ");
+                    for (int i = 0; i < this.updateColumns.size(); i++) {
+                        if (i > 0) {
+                            builder.append(", ");
+                        }
+                        builder.append('\'').append(this.updateColumns.get(i)).append("' = excluded.'").append(this.updateColumns.get(i)).append('\'');
+                    }
+                }
+            }
+        }
+        return this.processor.apply(builder.toString());
+    }
+
+    private void appendRows(StringBuilder builder, int rows) {
+        final var row = "(" + "?, ".repeat(this.columns - 1) + "?)";
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(row);
+        }
+    }
+
+    private String columnList() {
+        final var all = new ArrayList<String>(this.columns);
+        all.addAll(this.keyColumns);
+        all.addAll(this.updateColumns);
+        return quote(all);
+    }
+
+    private static String quote(List<String> columns) {
+        final var builder = new StringBuilder();
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append('\'').append(columns.get(i)).append('\'');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Maximum amount of bind parameters in one statement.
+     */
+    private static int parameterLimit(DatabaseType type) {
+        return switch (type) {
+            // prepared statement placeholders are counted with 16 bits
+            case MYSQL, MARIADB -> 65535;
+            // the protocol sends the parameter count as a signed short
+            case POSTGRESQL -> 32767;
+            // SQLITE_MAX_VARIABLE_NUMBER since SQLite 3.32
+            case SQLITE -> 32766;
+            case H2 -> 32767;
+        };
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.batch;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives buffered writes which were dropped because the database keeps rejecting them.
+ *
+ * @author DenaryDev
+ * @since 19:40 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+@FunctionalInterface
+public interface FailedWriteHandler<K, V> {
+    void handle(@NotNull final K key, @NotNull final V value, @NotNull final Exception cause);
+}
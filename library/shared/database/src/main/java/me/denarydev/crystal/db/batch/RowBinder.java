@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.batch;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds a value to one row of a multi-row statement.
+ * <p>
+ * The parameters of the row start after {@code offset}, so the first column
+ * is bound with {@code statement.setXxx(offset + 1, ...)}.
+ *
+ * @author DenaryDev
+ * @since 16:20 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+@FunctionalInterface
+public interface RowBinder<V> {
+    void bind(@NotNull final PreparedStatement statement, final int offset, @NotNull final V value) throws SQLException;
+}
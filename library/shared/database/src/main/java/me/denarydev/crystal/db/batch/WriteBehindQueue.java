@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.batch;
+
+import me.denarydev.crystal.db.connection.ConnectionFactory;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers keyed writes and flushes them as JDBC batches.
+ * <p>
+ * Repeated writes to the same key are coalesced, only the latest value is written.
+ * The buffer is flushed when it reaches {@code batchSize} entries or periodically
+ * by the {@link me.denarydev.crystal.db.DatabaseManager} scheduler, whichever comes first.
+ * <p>
+ * When the buffer holds {@code maxPending} entries, including the ones being flushed, {@link #submit(Object, Object)}
+ * blocks until the next flush frees some space. Writes are kept while the database is unreachable,
+ * so callers which must not block, like the server thread, should use {@link #offer(Object, Object, long, TimeUnit)}.
+ * <p>
+ * A batch which the database rejects is retried with the next flushes. After {@value #MAX_ATTEMPTS} failed attempts
+ * its values are written one by one, and values which still fail are dropped and passed to the
+ * {@link #onFailedWrite(FailedWriteHandler) failed write handler}, so a single bad row can't block the queue.
+ *
+ * @author DenaryDev
+ * @since 13:10 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class WriteBehindQueue<K, V> {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ConnectionFactory connectionFactory;
+    private final Executor flushExecutor;
+    private final Logger logger;
+    private final String sql;
+    private final BatchBinder<V> binder;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = this.lock.newCondition();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private LinkedHashMap<K, V> pending = new LinkedHashMap<>();
+    // guarded by lock: rejected batch attempts of pending keys, and the amount of writes being flushed
+    private final Map<K, Integer> failures = new HashMap<>();
+    private int flushing;
+    private volatile FailedWriteHandler<K, V> failedWriteHandler = (key, value, cause) -> {
+    };
+    private volatile boolean closed;
+
+    @ApiStatus.Internal
+    public WriteBehindQueue(@NotNull ConnectionFactory connectionFactory, @NotNull Executor flushExecutor, @NotNull Logger logger,
+                            @NotNull String sql, @NotNull BatchBinder<V> binder, int batchSize, int maxPending) {
+        if (batchSize < 1 || maxPending < batchSize) {
+            throw new IllegalArgumentException("batchSize must be positive and not greater than maxPending");
+        }
+        this.connectionFactory = connectionFactory;
+        this.flushExecutor = flushExecutor;
+        this.logger = logger;
+        this.sql = connectionFactory.statementProcessor().apply(sql);
+        this.binder = binder;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Adds a write to the buffer, replacing any pending write with the same key.
+     * Blocks while the buffer is full.
+     *
+     * @param key   key of the written row
+     * @param value value to bind to the statement
+     * @throws InterruptedException if interrupted while waiting for space in the buffer
+     */
+    public void submit(@NotNull K key, @NotNull V value) throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            ensureOpen();
+            while (full(key)) {
+                flushAsync();
+                this.notFull.await();
+                ensureOpen();
+            }
+            put(key, value);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a write to the buffer, replacing any pending write with the same key.
+     * Waits up to the given time while the buffer is full.
+     *
+     * @param key     key of the written row
+     * @param value   value to bind to the statement
+     * @param timeout the maximum time to wait
+     * @param unit    the time unit of the timeout argument
+     * @return {@code true} if the write was buffered, {@code false} if the buffer is still full
+     * @throws InterruptedException if interrupted while waiting for space in the buffer
+     */
+    public boolean offer(@NotNull K key, @NotNull V value, long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        this.lock.lockInterruptibly();
+        try {
+            ensureOpen();
+            while (full(key)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                flushAsync();
+                nanos = this.notFull.awaitNanos(nanos);
+                ensureOpen();
+            }
+            put(key, value);
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private boolean full(K key) {
+        return this.pending.size() + this.flushing >= this.maxPending && !this.pending.containsKey(key);
+    }
+
+    private void put(K key, V value) {
+        this.pending.put(key, value);
+        // a new value gets new attempts
+        this.failures.remove(key);
+        if (this.pending.size() >= this.batchSize) {
+            flushAsync();
+        }
+    }
+
+    /**
+     * Sets the handler of writes which are dropped after the database rejected them {@value #MAX_ATTEMPTS} times.
+     * Dropped writes are logged in any case.
+     *
+     * @param handler the handler
+     */
+    public void onFailedWrite(@NotNull FailedWriteHandler<K, V> handler) {
+        this.failedWriteHandler = handler;
+    }
+
+    private void ensureOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("Write-behind queue is closed");
+        }
+    }
+
+    /**
+     * Flushes the buffer in the flush executor, unless a flush is already scheduled.
+     */
+    public void flushAsync() {
+        if (this.flushScheduled.compareAndSet(false, true)) {
+            try {
+                this.flushExecutor.execute(() -> {
+                    this.flushScheduled.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException ex) {
+                // shutting down or too many queued queries, the next scheduled flush tries again
+                this.flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Returns the amount of buffered writes.
+     */
+    public int pending() {
+        this.lock.lock();
+        try {
+            return this.pending.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all buffered values to the database in the calling thread.
+     * <p>
+     * If the batch fails, the values are put back into the buffer unless they were overwritten meanwhile.
+     * Values of batches which failed {@value #MAX_ATTEMPTS} times are written one by one instead.
+     */
+    public void flush() {
+        synchronized (this.flushLock) {
+            final LinkedHashMap<K, V> batch;
+            final boolean isolate;
+            this.lock.lock();
+            try {
+                if (this.pending.isEmpty()) {
+                    return;
+                }
+                batch = this.pending;
+                this.pending = new LinkedHashMap<>();
+                // the batch still counts against maxPending until it is written or put back
+                this.flushing = batch.size();
+                isolate = batch.keySet().stream().anyMatch(key -> this.failures.getOrDefault(key, 0) >= MAX_ATTEMPTS);
+            } finally {
+                this.lock.unlock();
+            }
+
+            final var attempted = Set.copyOf(batch.keySet());
+            var rejected = false;
+            try {
+                if (isolate) {
+                    writeEach(batch);
+                } else {
+                    this.connectionFactory.execute(connection -> {
+                        write(connection, batch.values());
+                        return null;
+                    });
+                    batch.clear();
+                }
+            } catch (SQLException | RuntimeException ex) {
+                this.logger.error("An error occurred flushing " + batch.size() + " buffered writes", ex);
+                rejected = !(ex instanceof SQLException sql && isTransient(sql));
+            }
+            finish(attempted, batch, rejected);
+        }
+    }
+
+    /**
+     * Writes the values one by one, removing written and dropped values from the batch.
+     * Stops at the first failure which is not caused by the value.
+     */
+    private void writeEach(Map<K, V> batch) throws SQLException {
+        this.connectionFactory.execute(connection -> {
+            final var iterator = batch.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final var entry = iterator.next();
+                try {
+                    write(connection, List.of(entry.getValue()));
+                } catch (SQLException | RuntimeException ex) {
+                    if (ex instanceof SQLException sql && isTransient(sql)) {
+                        throw sql;
+                    }
+                    this.logger.error("Dropped buffered write of {}, the database rejected it {} times", entry.getKey(), MAX_ATTEMPTS, ex);
+                    this.failedWriteHandler.handle(entry.getKey(), entry.getValue(), ex);
+                }
+                iterator.remove();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Checks whether the write may succeed later, e.g. because the connection was lost or a deadlock occurred.
+     */
+    private static boolean isTransient(SQLException ex) {
+        final var state = ex.getSQLState();
+        return ex instanceof SQLTransientException || ex instanceof SQLRecoverableException || (state != null && state.startsWith("08"));
+    }
+
+    private void write(Connection connection, Iterable<V> values) throws SQLException {
+        final var autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        try (final var statement = connection.prepareStatement(this.sql)) {
+            int count = 0;
+            for (final V value : values) {
+                this.binder.bind(statement, value);
+                statement.addBatch();
+                if (++count % this.batchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            if (count % this.batchSize != 0) {
+                statement.executeBatch();
+            }
+            if (autoCommit) {
+                connection.commit();
+            }
+        } catch (SQLException | RuntimeException ex) {
+            if (autoCommit) {
+                connection.rollback();
+            }
+            throw ex;
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Puts the failed values back into the buffer unless they were overwritten meanwhile,
+     * and lets blocked writers continue.
+     *
+     * @param attempted keys of the flushed batch
+     * @param failed    values which were not written
+     * @param rejected  whether the database rejected the batch, as opposed to being unreachable
+     */
+    private void finish(Set<K> attempted, Map<K, V> failed, boolean rejected) {
+        this.lock.lock();
+        try {
+            for (final var key : attempted) {
+                if (!failed.containsKey(key) && !this.pending.containsKey(key)) {
+                    this.failures.remove(key);
+                }
+            }
+            if (!failed.isEmpty() && !this.closed) {
+                // the buffer stays within maxPending, the failed values were counted as flushing
+                final var merged = new LinkedHashMap<K, V>();
+                for (final var entry : failed.entrySet()) {
+                    if (!this.pending.containsKey(entry.getKey())) {
+                        merged.put(entry.getKey(), entry.getValue());
+                        if (rejected) {
+                            this.failures.merge(entry.getKey(), 1, Integer::sum);
+                        }
+                    }
+                }
+                merged.putAll(this.pending);
+                this.pending = merged;
+            }
+        } finally {
+            this.flushing = 0;
+            this.notFull.signalAll();
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Rejects further writes and flushes the buffer.
+     */
+    @ApiStatus.Internal
+    public void close() {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.cache;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Loads a value missing from a {@link QueryCache}.
+ *
+ * @author DenaryDev
+ * @since 14:10 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+@FunctionalInterface
+public interface CacheLoader<K, V> {
+    /**
+     * @param connection read-only connection
+     * @param key        the key
+     * @return the value, or {@code null} if there is none
+     */
+    @Nullable V load(@NotNull final Connection connection, @NotNull final K key) throws SQLException;
+}
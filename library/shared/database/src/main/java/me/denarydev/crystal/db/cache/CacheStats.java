@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.cache;
+
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Snapshot of {@link QueryCache} statistics.
+ *
+ * @param hits         lookups served from memory
+ * @param misses       lookups which had to query the database, including ones joining an in-flight load
+ * @param loads        queries issued for missing keys
+ * @param loadFailures queries which failed
+ * @param evictions    entries removed because of size or age
+ * @param size         current amount of entries
+ * @author DenaryDev
+ * @since 14:10 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public record CacheStats(long hits, long misses, long loads, long loadFailures, long evictions, int size) {
+
+    /**
+     * @return ratio of lookups served from memory, {@code 1.0} if there were no lookups
+     */
+    public double hitRate() {
+        final var requests = this.hits + this.misses;
+        return requests == 0 ? 1.0 : (double) this.hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d hitRate=%.2f%% loads=%d failures=%d evictions=%d size=%d",
+            this.hits, this.misses, hitRate() * 100, this.loads, this.loadFailures, this.evictions, this.size);
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.cache;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Writes a value stored in a {@link QueryCache} to the database.
+ *
+ * @author DenaryDev
+ * @since 14:10 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+@FunctionalInterface
+public interface CacheWriter<K, V> {
+    void write(@NotNull final Connection connection, @NotNull final K key, @NotNull final V value) throws SQLException;
+}
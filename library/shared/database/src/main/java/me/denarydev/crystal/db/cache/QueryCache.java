@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.cache;
+
+import me.denarydev.crystal.db.DatabaseManager;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Read-through, write-through cache in front of database lookups.
+ * <p>
+ * Missing keys are loaded with read-only queries of the {@link DatabaseManager}. Concurrent lookups
+ * of the same missing key share one query. Absent rows ({@code null} values) are cached as well.
+ * Keys which were recently discarded or failed to be written are loaded from the primary database,
+ * because read replicas may not have the latest value yet.
+ * <p>
+ * Writes of the same key are executed one after another in the order of the {@link #put(Object, Object)} calls,
+ * and a load of a key waits for its pending writes.
+ * <p>
+ * Entries are evicted when the cache exceeds its maximum size (least recently used first)
+ * and when they are older than the expiration time.
+ * <p>
+ * {@link #put(Object, Object)} and {@link #invalidate(Object)} notify the invalidation listeners,
+ * which can be used to propagate changes to other servers. Changes received from other servers
+ * should be applied with {@link #discard(Object)}, which doesn't notify listeners.
+ *
+ * @author DenaryDev
+ * @since 14:10 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class QueryCache<K, V> {
+    private final DatabaseManager databaseManager;
+    private final CacheLoader<K, V> loader;
+    private final CacheWriter<K, V> writer;
+    private final int maximumSize;
+    private final long expireAfterWrite;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // guarded by entries
+    private final Map<K, CompletableFuture<Void>> writes = new HashMap<>();
+    private final Set<K> stale = new LinkedHashSet<>();
+    private final List<Consumer<K>> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @ApiStatus.Internal
+    public QueryCache(@NotNull DatabaseManager databaseManager, @NotNull CacheLoader<K, V> loader, @Nullable CacheWriter<K, V> writer,
+                      int maximumSize, long expireAfterWrite, @NotNull TimeUnit unit) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.databaseManager = databaseManager;
+        this.loader = loader;
+        this.writer = writer;
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite > 0 ? unit.toNanos(expireAfterWrite) : 0;
+    }
+
+    /**
+     * Returns the cached value or loads it from the database.
+     *
+     * @param key the key
+     * @return future completed with the value, or {@code null} if there is no row for the key
+     */
+    public @NotNull CompletableFuture<V> get(@NotNull K key) {
+        final var now = System.nanoTime();
+        final Entry<V> entry;
+        final CompletableFuture<Void> pendingWrite;
+        final boolean primary;
+        synchronized (this.entries) {
+            final var existing = this.entries.get(key);
+            if (existing != null && !expired(existing, now)) {
+                // joining a load in progress still waits for the database
+                (existing.value.isDone() ? this.hits : this.misses).increment();
+                return existing.value.copy();
+            }
+            if (existing != null) {
+                this.entries.remove(key);
+                this.evictions.increment();
+            }
+            entry = new Entry<>(new CompletableFuture<>(), now);
+            this.entries.put(key, entry);
+            evictIfNeeded();
+            pendingWrite = this.writes.get(key);
+            primary = this.stale.remove(key) || pendingWrite != null;
+        }
+
+        this.misses.increment();
+        this.loads.increment();
+        // a key with a pending write is loaded after it, from the primary
+        final var load = afterWrite(pendingWrite).thenCompose(ignored ->
+            this.databaseManager.queryAsync(!primary, connection -> this.loader.load(connection, key)));
+        load.whenComplete((value, ex) -> {
+            if (ex != null) {
+                this.loadFailures.increment();
+                synchronized (this.entries) {
+                    this.entries.remove(key, entry);
+                    if (primary) {
+                        markStale(key);
+                    }
+                }
+                entry.value.completeExceptionally(ex);
+            } else {
+                entry.value.complete(value);
+            }
+        });
+        return entry.value.copy();
+    }
+
+    /**
+     * Returns the cached value without querying the database.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if it is not cached, still loading or there is no row for the key
+     */
+    public @Nullable V getIfPresent(@NotNull K key) {
+        final var now = System.nanoTime();
+        synchronized (this.entries) {
+            final var entry = this.entries.get(key);
+            if (entry != null && !expired(entry, now) && entry.value.isDone()) {
+                this.hits.increment();
+                return entry.value.getNow(null);
+            }
+        }
+        this.misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores the value and writes it to the database with the cache writer.
+     * <p>
+     * The cached value is visible immediately. The value is written after the pending writes of the key.
+     * If the write fails, the key is discarded so the next lookup reloads it from the primary database.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return future completed when the value is written
+     */
+    public @NotNull CompletableFuture<Void> put(@NotNull K key, @NotNull V value) {
+        final var entry = new Entry<>(CompletableFuture.completedFuture(value), System.nanoTime());
+        final CompletableFuture<Void> write;
+        synchronized (this.entries) {
+            this.entries.put(key, entry);
+            evictIfNeeded();
+            if (this.writer != null) {
+                // the executor runs queries in parallel, chain the write so an older value can't be committed last
+                write = afterWrite(this.writes.get(key)).thenCompose(ignored ->
+                    this.databaseManager.connectAsync(connection -> this.writer.write(connection, key, value)));
+                this.writes.put(key, write);
+            } else {
+                write = null;
+            }
+        }
+        notifyListeners(key);
+
+        if (write == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return write.whenComplete((result, ex) -> {
+            synchronized (this.entries) {
+                this.writes.remove(key, write);
+                if (ex != null) {
+                    this.entries.remove(key, entry);
+                    markStale(key);
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the key and notifies invalidation listeners. Call this after writing the key
+     * to the database without the cache.
+     *
+     * @param key the key
+     */
+    public void invalidate(@NotNull K key) {
+        discard(key);
+        notifyListeners(key);
+    }
+
+    /**
+     * Removes the key without notifying invalidation listeners.
+     *
+     * @param key the key
+     */
+    public void discard(@NotNull K key) {
+        synchronized (this.entries) {
+            this.entries.remove(key);
+            markStale(key);
+        }
+    }
+
+    /**
+     * Removes all entries without notifying invalidation listeners.
+     */
+    public void discardAll() {
+        synchronized (this.entries) {
+            this.entries.clear();
+            this.stale.clear();
+        }
+    }
+
+    /**
+     * Registers a listener called with every key which is changed with {@link #put(Object, Object)}
+     * or {@link #invalidate(Object)}.
+     *
+     * @param listener the listener
+     */
+    public void onInvalidate(@NotNull Consumer<K> listener) {
+        this.invalidationListeners.add(listener);
+    }
+
+    /**
+     * Removes expired entries. Called periodically by the {@link DatabaseManager} scheduler.
+     */
+    public void cleanUp() {
+        if (this.expireAfterWrite == 0) {
+            return;
+        }
+        final var now = System.nanoTime();
+        synchronized (this.entries) {
+            final var iterator = this.entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (expired(iterator.next(), now)) {
+                    iterator.remove();
+                    this.evictions.increment();
+                }
+            }
+        }
+    }
+
+    public @NotNull CacheStats stats() {
+        final int size;
+        synchronized (this.entries) {
+            size = this.entries.size();
+        }
+        return new CacheStats(this.hits.sum(), this.misses.sum(), this.loads.sum(), this.loadFailures.sum(), this.evictions.sum(), size);
+    }
+
+    private boolean expired(Entry<V> entry, long now) {
+        return this.expireAfterWrite > 0 && now - entry.writtenAt >= this.expireAfterWrite;
+    }
+
+    private void evictIfNeeded() {
+        final var iterator = this.entries.values().iterator();
+        while (this.entries.size() > this.maximumSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            this.evictions.increment();
+        }
+    }
+
+    /**
+     * Returns a future completed when the pending write is done, whether it succeeded or not.
+     */
+    private static CompletableFuture<Void> afterWrite(@Nullable CompletableFuture<Void> pendingWrite) {
+        return pendingWrite == null ? CompletableFuture.completedFuture(null) : pendingWrite.exceptionally(ex -> null);
+    }
+
+    /**
+     * Makes the next load of the key read from the primary database. Must hold the entries lock.
+     */
+    private void markStale(K key) {
+        this.stale.add(key);
+        if (this.stale.size() > this.maximumSize) {
+            // the oldest keys are likely replicated by now
+            final var iterator = this.stale.iterator();
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private void notifyListeners(K key) {
+        for (final var listener : this.invalidationListeners) {
+            listener.accept(key);
+        }
+    }
+
+    private record Entry<V>(CompletableFuture<V> value, long writtenAt) {
+    }
+}
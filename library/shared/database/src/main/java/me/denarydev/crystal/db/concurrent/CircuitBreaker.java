@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.concurrent;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stops calls to an unavailable resource after consecutive failures.
+ * <p>
+ * After {@code threshold} consecutive failures the breaker opens and rejects all calls for the cool-down time.
+ * Then a single probe call is let through (half-open): if it succeeds the breaker closes,
+ * otherwise it opens for another cool-down.
+ *
+ * @author DenaryDev
+ * @since 15:30 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class CircuitBreaker {
+    private final String name;
+    private final Logger logger;
+    private final int threshold;
+    private final long cooldownNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder rejections = new LongAdder();
+    private volatile long openedAt;
+
+    /**
+     * @param name       name used in log messages
+     * @param logger     logger for state changes
+     * @param threshold  consecutive failures after which the breaker opens
+     * @param cooldownMs milliseconds the breaker stays open before a probe call
+     */
+    public CircuitBreaker(@NotNull String name, @NotNull Logger logger, int threshold, long cooldownMs) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+        this.name = name;
+        this.logger = logger;
+        this.threshold = threshold;
+        this.cooldownNanos = cooldownMs * 1_000_000L;
+    }
+
+    /**
+     * Checks whether a call may proceed. Every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     *
+     * @return whether the call may proceed
+     */
+    public boolean tryAcquire() {
+        final var current = this.state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - this.openedAt >= this.cooldownNanos
+            && this.state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            // this caller is the probe
+            return true;
+        }
+        this.rejections.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        this.consecutiveFailures.set(0);
+        if (this.state.get() != State.CLOSED && this.state.getAndSet(State.CLOSED) != State.CLOSED) {
+            this.logger.info("{} is available again, circuit breaker closed", this.name);
+        }
+    }
+
+    public void onFailure() {
+        final var failures = this.consecutiveFailures.incrementAndGet();
+        final var current = this.state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= this.threshold)) {
+            this.openedAt = System.nanoTime();
+            if (this.state.compareAndSet(current, State.OPEN)) {
+                this.logger.warn("{} failed {} times in a row, failing fast for {} ms", this.name, failures, this.cooldownNanos / 1_000_000L);
+            }
+        }
+    }
+
+    public @NotNull State state() {
+        return this.state.get();
+    }
+
+    /**
+     * @return amount of calls rejected while the breaker was open
+     */
+    public long rejections() {
+        return this.rejections.sum();
+    }
+
+    public enum State {
+        /**
+         * Calls proceed normally.
+         */
+        CLOSED,
+        /**
+         * Calls are rejected until the cool-down elapses.
+         */
+        OPEN,
+        /**
+         * A single probe call is in progress, other calls are rejected.
+         */
+        HALF_OPEN
+    }
+}
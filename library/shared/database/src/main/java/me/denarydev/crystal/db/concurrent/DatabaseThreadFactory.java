@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.concurrent;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates named daemon threads, so they can be distinguished in thread dumps.
+ *
+ * @author DenaryDev
+ * @since 11:05 18.10.2026
+ */
+@ApiStatus.Internal
+@ApiStatus.AvailableSince("2.2.0")
+public final class DatabaseThreadFactory implements ThreadFactory {
+    private final String name;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public DatabaseThreadFactory(@NotNull String name) {
+        this.name = name;
+    }
+
+    @Override
+    public Thread newThread(@NotNull Runnable runnable) {
+        final var thread = new Thread(runnable, this.name + "-" + this.counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.concurrent;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A bounded executor for database queries.
+ * <p>
+ * Tasks are queued (up to {@code capacity}) and dispatched to the backing executor,
+ * with at most {@code parallelism} of them running at the same time.
+ * <p>
+ * Tasks are never executed on the submitting thread. If the backing executor rejects a task,
+ * its rejection handler is called instead. Tasks submitted without a handler have no way to report
+ * the rejection, so it is logged and they are run on a separate thread, where they usually fail because
+ * the database is shutting down. That way futures wrapping them, e.g. of
+ * {@link java.util.concurrent.CompletableFuture#supplyAsync(java.util.function.Supplier, Executor)}, still complete.
+ *
+ * @author DenaryDev
+ * @since 11:12 18.10.2026
+ */
+@ApiStatus.Internal
+@ApiStatus.AvailableSince("2.2.0")
+public final class QueryExecutor implements Executor {
+    private final String name;
+    private final Executor backing;
+    private final Logger logger;
+    private final Semaphore permits;
+    private final int parallelism;
+    private final int capacity;
+
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Object terminationLock = new Object();
+    private volatile boolean shutdown;
+
+    public QueryExecutor(@NotNull String name, @NotNull Executor backing, @NotNull Logger logger, int parallelism, int capacity) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.name = name;
+        this.backing = backing;
+        this.logger = logger;
+        this.permits = new Semaphore(parallelism);
+        this.parallelism = parallelism;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void execute(@NotNull Runnable task) {
+        execute(task, null);
+    }
+
+    /**
+     * Queues a task for execution.
+     *
+     * @param task       the task
+     * @param onRejected called if the backing executor rejects the task after it has been queued,
+     *                   if {@code null} the task is run on a separate thread instead
+     * @throws RejectedExecutionException if this executor is shut down or its queue is full
+     */
+    public void execute(@NotNull Runnable task, @Nullable Consumer<? super RejectedExecutionException> onRejected) {
+        if (this.shutdown) {
+            throw new RejectedExecutionException(this.name + " query executor has been shut down");
+        }
+        if (this.queued.incrementAndGet() > this.capacity) {
+            this.queued.decrementAndGet();
+            throw new RejectedExecutionException(this.name + " query queue is full (" + this.capacity + " pending queries)");
+        }
+
+        this.queue.offer(new Task(task, onRejected != null ? onRejected : ex -> runRejected(task, ex)));
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (!this.queue.isEmpty() && this.permits.tryAcquire()) {
+            final var task = this.queue.poll();
+            if (task == null) {
+                // another thread took the task first
+                this.permits.release();
+                continue;
+            }
+
+            // count the task as running before it leaves the queue, so awaitTermination never sees both counters at 0
+            this.running.incrementAndGet();
+            this.queued.decrementAndGet();
+            try {
+                this.backing.execute(() -> run(task.runnable()));
+            } catch (RejectedExecutionException ex) {
+                // backing executor is gone, don't run the task in place, the submitter may be the server thread
+                try {
+                    task.onRejected().accept(ex);
+                } finally {
+                    finish();
+                }
+            }
+        }
+    }
+
+    private void runRejected(Runnable task, RejectedExecutionException ex) {
+        this.logger.warn("{} query executor could not dispatch a task, running it on a separate thread", this.name, ex);
+        new DatabaseThreadFactory(this.name + "-Rejected").newThread(task).start();
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } finally {
+            finish();
+            dispatch();
+        }
+    }
+
+    private void finish() {
+        this.running.decrementAndGet();
+        this.permits.release();
+        synchronized (this.terminationLock) {
+            this.terminationLock.notifyAll();
+        }
+    }
+
+    /**
+     * Stops accepting new tasks. Already queued tasks will still be executed.
+     */
+    public void shutdown() {
+        this.shutdown = true;
+    }
+
+    /**
+     * Waits until all queued and running tasks are completed.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the time unit of the timeout argument
+     * @return {@code true} if all tasks are completed, {@code false} if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this.terminationLock) {
+            while (this.queued.get() > 0 || this.running.get() > 0) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this.terminationLock, remaining);
+            }
+        }
+        return true;
+    }
+
+    public boolean isShutdown() {
+        return this.shutdown;
+    }
+
+    /**
+     * Returns the amount of tasks waiting for execution.
+     */
+    public int queued() {
+        return this.queued.get();
+    }
+
+    /**
+     * Returns the amount of tasks being executed right now.
+     */
+    public int running() {
+        return this.running.get();
+    }
+
+    /**
+     * Returns the maximum amount of tasks executed at the same time.
+     */
+    public int parallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Returns the maximum amount of tasks waiting for execution.
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    private record Task(Runnable runnable, Consumer<? super RejectedExecutionException> onRejected) {
+    }
+}
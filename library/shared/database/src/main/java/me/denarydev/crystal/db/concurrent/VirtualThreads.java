@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.concurrent;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads, which are only available since Java 21.
+ * <p>
+ * The library is compiled against Java 17, so everything is looked up reflectively.
+ *
+ * @author DenaryDev
+ * @since 12:20 18.10.2026
+ */
+@ApiStatus.Internal
+@ApiStatus.AvailableSince("2.2.0")
+public final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    /**
+     * Creates an executor which starts a new virtual thread for each task.
+     *
+     * @param name prefix for thread names
+     * @return the executor, or {@code null} if virtual threads are not supported by the runtime
+     */
+    public static @Nullable ExecutorService newExecutor(@NotNull String name) {
+        try {
+            var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = Class.forName("java.lang.Thread$Builder$OfVirtual")
+                .getMethod("name", String.class, long.class)
+                .invoke(builder, name + "-", 1L);
+            final var factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                .getMethod("factory")
+                .invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+}
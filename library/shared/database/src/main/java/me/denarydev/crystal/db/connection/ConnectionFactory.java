@@ -8,13 +8,19 @@
 package me.denarydev.crystal.db.connection;
 
 import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.concurrent.CircuitBreaker;
 import me.denarydev.crystal.db.connection.file.FlatfileConnectionFactory;
 import me.denarydev.crystal.db.connection.hikari.HikariConnectionFactory;
+import me.denarydev.crystal.db.metrics.DatabaseMetrics;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Function;
 
 @ApiStatus.AvailableSince("2.1.0")
@@ -42,6 +48,18 @@ public sealed interface ConnectionFactory permits FlatfileConnectionFactory, Hik
     @NotNull
     Connection connection() throws SQLException;
 
+    /**
+     * Opens a connection dedicated to a long-running read, such as a streamed result set.
+     * The connection is not shared with other queries and must be closed by the caller.
+     *
+     * @return {@link Connection}
+     * @throws SQLException when the connection could not be received
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default @NotNull Connection cursorConnection() throws SQLException {
+        return connection();
+    }
+
     /**
      * Executes a callback with a Connection passed and automatically closes it when finished
      *
@@ -49,6 +67,143 @@ public sealed interface ConnectionFactory permits FlatfileConnectionFactory, Hik
      */
     void connect(@NotNull final ConnectionCallback callback);
 
+    /**
+     * Executes a function with a Connection passed and automatically closes it when finished.
+     * <p>
+     * Unlike {@link #connect(ConnectionCallback)}, errors are not logged but rethrown to the caller.
+     *
+     * @param function The function to execute once the connection is retrieved
+     * @return the result of the function
+     * @throws SQLException when the connection could not be received or the function failed
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    <T> T execute(@NotNull final ConnectionFunction<T> function) throws SQLException;
+
+    /**
+     * Executes a function with a Connection passed and automatically closes it when finished.
+     * <p>
+     * Read-only functions may be executed on dedicated read-only connections, if the factory has them.
+     *
+     * @param readOnly whether the function only reads data
+     * @param function The function to execute once the connection is retrieved
+     * @return the result of the function
+     * @throws SQLException when the connection could not be received or the function failed
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default <T> T execute(final boolean readOnly, @NotNull final ConnectionFunction<T> function) throws SQLException {
+        return execute(function);
+    }
+
+    /**
+     * Executes a function in a transaction, retrying it up to {@value TransactionTemplate#DEFAULT_ATTEMPTS} times
+     * when the database aborts the transaction because of a deadlock or a serialization failure.
+     *
+     * @param function The function to execute in the transaction
+     * @return the result of the function
+     * @throws SQLException when the connection could not be received or the function failed
+     * @see TransactionTemplate
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default <T> T transaction(@NotNull final ConnectionFunction<T> function) throws SQLException {
+        return transaction(function, TransactionTemplate.DEFAULT_ATTEMPTS);
+    }
+
+    /**
+     * Executes a function in a transaction, retrying it when the database aborts the transaction
+     * because of a deadlock or a serialization failure.
+     * <p>
+     * The function may be executed several times and must not have side effects outside the transaction.
+     *
+     * @param function    The function to execute in the transaction
+     * @param maxAttempts maximum amount of times the function is executed
+     * @return the result of the function
+     * @throws SQLException when the connection could not be received or the function failed
+     * @see TransactionTemplate
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default <T> T transaction(@NotNull final ConnectionFunction<T> function, final int maxAttempts) throws SQLException {
+        return execute(TransactionTemplate.of(implementationType(), function, maxAttempts));
+    }
+
+    /**
+     * Executes a function and completes the future with its result or error.
+     * <p>
+     * Implementations may delay the completion until the changes are durable,
+     * for example until a group transaction is committed.
+     *
+     * @param function The function to execute once the connection is retrieved
+     * @param future   The future to complete
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default <T> void execute(@NotNull final ConnectionFunction<T> function, @NotNull final CompletableFuture<T> future) {
+        try {
+            future.complete(execute(function));
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * Returns the maximum amount of queries which can be executed simultaneously.
+     * <p>
+     * Used to size the asynchronous query executor of the {@link me.denarydev.crystal.db.DatabaseManager}.
+     *
+     * @return max amount of simultaneous queries
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    int parallelism();
+
+    /**
+     * Returns the amount of dedicated read-only connections,
+     * or 0 if read-only queries use the same connections as other queries.
+     *
+     * @return max amount of simultaneous read-only queries
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int readParallelism() {
+        return 0;
+    }
+
+    /**
+     * Creates a custom executor for asynchronous queries of this factory.
+     * <p>
+     * The executor is owned by the {@link me.denarydev.crystal.db.DatabaseManager} and shut down with it.
+     *
+     * @param name prefix for thread names
+     * @return the executor, or {@code null} to use the default one
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    @Nullable
+    default ExecutorService createExecutor(@NotNull String name) {
+        return null;
+    }
+
+    /**
+     * Returns metrics of the connections of this factory.
+     *
+     * @return metrics
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    @NotNull
+    DatabaseMetrics metrics();
+
+    /**
+     * @return the circuit breaker guarding connection acquisition, or {@code null} if there is none
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default @Nullable CircuitBreaker circuitBreaker() {
+        return null;
+    }
+
+    /**
+     * Registers periodic maintenance tasks of this factory, like checkpoints.
+     *
+     * @param scheduler the scheduler of the {@link me.denarydev.crystal.db.DatabaseManager}
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default void scheduleMaintenance(@NotNull ScheduledExecutorService scheduler) {
+    }
+
     Function<String, String> statementProcessor();
 
     /**
@@ -57,4 +212,12 @@ public sealed interface ConnectionFactory permits FlatfileConnectionFactory, Hik
     interface ConnectionCallback {
         void accept(@NotNull final Connection connection) throws SQLException;
     }
+
+    /**
+     * Same as {@link ConnectionCallback}, but returns a result
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    interface ConnectionFunction<T> {
+        T apply(@NotNull final Connection connection) throws SQLException;
+    }
 }
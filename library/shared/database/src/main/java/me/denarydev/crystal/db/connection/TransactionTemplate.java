@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.connection;
+
+import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.connection.ConnectionFactory.ConnectionFunction;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs functions in transactions and retries them when the database aborts the transaction
+ * because of a deadlock, a serialization failure or a lock timeout.
+ * <p>
+ * If the connection is already in a transaction (autocommit is disabled), the function runs in it
+ * without retries, the owner of the transaction is responsible for committing and rolling back.
+ *
+ * @author DenaryDev
+ * @since 15:00 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class TransactionTemplate {
+    public static final int DEFAULT_ATTEMPTS = 5;
+    private static final long BASE_DELAY = 20;
+    private static final long MAX_DELAY = 1000;
+
+    private TransactionTemplate() {
+    }
+
+    /**
+     * Wraps a function to run in a transaction.
+     *
+     * @param type        database type, used to classify retryable errors
+     * @param function    the function
+     * @param maxAttempts maximum amount of times the function is executed
+     * @return function executing the given one in a transaction
+     */
+    public static <T> @NotNull ConnectionFunction<T> of(@NotNull DatabaseType type, @NotNull ConnectionFunction<T> function, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be positive");
+        }
+        return connection -> {
+            if (!connection.getAutoCommit()) {
+                return function.apply(connection);
+            }
+
+            connection.setAutoCommit(false);
+            try {
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        final var result = function.apply(connection);
+                        connection.commit();
+                        return result;
+                    } catch (SQLException ex) {
+                        rollback(connection, ex);
+                        if (attempt >= maxAttempts || !isRetryable(type, ex)) {
+                            throw ex;
+                        }
+                        backoff(attempt, ex);
+                    } catch (RuntimeException | Error ex) {
+                        rollback(connection, ex);
+                        throw ex;
+                    }
+                }
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        };
+    }
+
+    /**
+     * Checks whether the transaction was aborted by the database and can be retried.
+     *
+     * @param type database type
+     * @param ex   the exception
+     * @return whether the exception or one of its causes is retryable
+     */
+    public static boolean isRetryable(@NotNull DatabaseType type, @NotNull SQLException ex) {
+        for (Throwable current = ex; current != null; current = current.getCause()) {
+            if (current instanceof SQLException sql) {
+                for (var next = sql; next != null; next = next.getNextException()) {
+                    if (isRetryableCode(type, next)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRetryableCode(DatabaseType type, SQLException ex) {
+        final var state = ex.getSQLState();
+        // standard serialization failure, reported by most databases for deadlock victims
+        if ("40001".equals(state)) {
+            return true;
+        }
+        final var code = ex.getErrorCode();
+        return switch (type) {
+            // ER_LOCK_DEADLOCK, ER_LOCK_WAIT_TIMEOUT
+            case MYSQL, MARIADB -> code == 1213 || code == 1205;
+            // deadlock_detected
+            case POSTGRESQL -> "40P01".equals(state);
+            // SQLITE_BUSY, SQLITE_LOCKED, including extended result codes
+            case SQLITE -> (code & 0xff) == 5 || (code & 0xff) == 6;
+            // LOCK_TIMEOUT_1
+            case H2 -> code == 50200;
+        };
+    }
+
+    private static void rollback(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static void backoff(int attempt, SQLException cause) throws SQLException {
+        final var delay = Math.min(MAX_DELAY, BASE_DELAY << Math.min(attempt - 1, 16));
+        try {
+            // equal jitter: keep half of the delay, randomize the rest so retries don't collide again
+            Thread.sleep(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cause.addSuppressed(e);
+            throw cause;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.connection.file;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * A wrapper around a cached {@link PreparedStatement} which returns it
+ * to the {@link NonClosableConnection} statement cache instead of closing it.
+ * <p>
+ * Statement options changed by a caller are restored before the statement is returned to the cache,
+ * options which can't be restored (cursor name, close on completion) keep the statement out of the cache.
+ *
+ * @author DenaryDev
+ * @since 16:20 18.10.2026
+ */
+@ApiStatus.Internal
+@ApiStatus.AvailableSince("2.2.0")
+public final class CachedPreparedStatement implements PreparedStatement {
+    private final NonClosableConnection connection;
+    private final String sql;
+    private final PreparedStatement delegate;
+    private ResultSet resultSet;
+    private boolean closed;
+
+    // options to restore on reset, -1 if unchanged
+    private int maxRows = -1;
+    private int maxFieldSize = -1;
+    private int fetchSize = -1;
+    private int fetchDirection = -1;
+    private int queryTimeout = -1;
+    private boolean escapeProcessingChanged;
+    private boolean reusable = true;
+
+    CachedPreparedStatement(NonClosableConnection connection, String sql, PreparedStatement delegate) {
+        this.connection = connection;
+        this.sql = sql;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Resets the statement state, so it can be reused by the next caller.
+     */
+    void reset() throws SQLException {
+        if (this.resultSet != null) {
+            this.resultSet.close();
+            this.resultSet = null;
+        }
+        this.delegate.clearParameters();
+        this.delegate.clearBatch();
+
+        if (this.maxRows >= 0) {
+            this.delegate.setMaxRows(this.maxRows);
+            this.maxRows = -1;
+        }
+        if (this.maxFieldSize >= 0) {
+            this.delegate.setMaxFieldSize(this.maxFieldSize);
+            this.maxFieldSize = -1;
+        }
+        if (this.fetchSize >= 0) {
+            this.delegate.setFetchSize(this.fetchSize);
+            this.fetchSize = -1;
+        }
+        if (this.fetchDirection >= 0) {
+            this.delegate.setFetchDirection(this.fetchDirection);
+            this.fetchDirection = -1;
+        }
+        if (this.queryTimeout >= 0) {
+            this.delegate.setQueryTimeout(this.queryTimeout);
+            this.queryTimeout = -1;
+        }
+        if (this.escapeProcessingChanged) {
+            // enabled by default, there is no getter to remember the previous value
+            this.delegate.setEscapeProcessing(true);
+            this.escapeProcessingChanged = false;
+        }
+    }
+
+    /**
+     * Whether the statement can be returned to the cache after {@link #reset()}.
+     */
+    boolean reusable() {
+        return this.reusable;
+    }
+
+    PreparedStatement delegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.connection.release(this.sql, this);
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return this.closed || this.delegate.isClosed();
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        return this.resultSet = this.delegate.executeQuery();
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        final var resultSet = this.delegate.getResultSet();
+        if (resultSet != null) {
+            this.resultSet = resultSet;
+        }
+        return resultSet;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return this.connection;
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this.delegate) || this.delegate.isWrapperFor(iface);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this.delegate)) {
+            return (T) this.delegate;
+        }
+        return this.delegate.unwrap(iface);
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        this.reusable = false;
+        this.delegate.closeOnCompletion();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        this.reusable = false;
+        this.delegate.setCursorName(name);
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        if (this.maxRows < 0) {
+            this.maxRows = this.delegate.getMaxRows();
+        }
+        this.delegate.setMaxRows(max);
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        if (this.maxFieldSize < 0) {
+            this.maxFieldSize = this.delegate.getMaxFieldSize();
+        }
+        this.delegate.setMaxFieldSize(max);
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        if (this.fetchSize < 0) {
+            this.fetchSize = this.delegate.getFetchSize();
+        }
+        this.delegate.setFetchSize(rows);
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        if (this.fetchDirection < 0) {
+            this.fetchDirection = this.delegate.getFetchDirection();
+        }
+        this.delegate.setFetchDirection(direction);
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        if (this.queryTimeout < 0) {
+            this.queryTimeout = this.delegate.getQueryTimeout();
+        }
+        this.delegate.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        this.escapeProcessingChanged |= !enable;
+        this.delegate.setEscapeProcessing(enable);
+    }
+
+    // Forward to the delegate statement
+    @Override public void addBatch(String sql) throws SQLException { this.delegate.addBatch(sql); }
+    @Override public void cancel() throws SQLException { this.delegate.cancel(); }
+    @Override public void clearBatch() throws SQLException { this.delegate.clearBatch(); }
+    @Override public void clearWarnings() throws SQLException { this.delegate.clearWarnings(); }
+    @Override public boolean execute(String sql) throws SQLException { return this.delegate.execute(sql); }
+    @Override public boolean execute(String sql, int[] columnIndexes) throws SQLException { return this.delegate.execute(sql, columnIndexes); }
+    @Override public boolean execute(String sql, String[] columnNames) throws SQLException { return this.delegate.execute(sql, columnNames); }
+    @Override public boolean execute(String sql, int autoGeneratedKeys) throws SQLException { return this.delegate.execute(sql, autoGeneratedKeys); }
+    @Override public int[] executeBatch() throws SQLException { return this.delegate.executeBatch(); }
+    @Override public ResultSet executeQuery(String sql) throws SQLException { return this.delegate.executeQuery(sql); }
+    @Override public int executeUpdate(String sql) throws SQLException { return this.delegate.executeUpdate(sql); }
+    @Override public int executeUpdate(String sql, int[] columnIndexes) throws SQLException { return this.delegate.executeUpdate(sql, columnIndexes); }
+    @Override public int executeUpdate(String sql, String[] columnNames) throws SQLException { return this.delegate.executeUpdate(sql, columnNames); }
+    @Override public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException { return this.delegate.executeUpdate(sql, autoGeneratedKeys); }
+    @Override public int getFetchDirection() throws SQLException { return this.delegate.getFetchDirection(); }
+    @Override public int getFetchSize() throws SQLException { return this.delegate.getFetchSize(); }
+    @Override public ResultSet getGeneratedKeys() throws SQLException { return this.delegate.getGeneratedKeys(); }
+    @Override public int getMaxFieldSize() throws SQLException { return this.delegate.getMaxFieldSize(); }
+    @Override public int getMaxRows() throws SQLException { return this.delegate.getMaxRows(); }
+    @Override public boolean getMoreResults() throws SQLException { return this.delegate.getMoreResults(); }
+    @Override public boolean getMoreResults(int current) throws SQLException { return this.delegate.getMoreResults(current); }
+    @Override public int getQueryTimeout() throws SQLException { return this.delegate.getQueryTimeout(); }
+    @Override public int getResultSetConcurrency() throws SQLException { return this.delegate.getResultSetConcurrency(); }
+    @Override public int getResultSetHoldability() throws SQLException { return this.delegate.getResultSetHoldability(); }
+    @Override public int getResultSetType() throws SQLException { return this.delegate.getResultSetType(); }
+    @Override public int getUpdateCount() throws SQLException { return this.delegate.getUpdateCount(); }
+    @Override public SQLWarning getWarnings() throws SQLException { return this.delegate.getWarnings(); }
+    @Override public boolean isCloseOnCompletion() throws SQLException { return this.delegate.isCloseOnCompletion(); }
+    @Override public boolean isPoolable() throws SQLException { return this.delegate.isPoolable(); }
+    @Override public void setPoolable(boolean poolable) throws SQLException { this.delegate.setPoolable(poolable); }
+    @Override public void addBatch() throws SQLException { this.delegate.addBatch(); }
+    @Override public void clearParameters() throws SQLException { this.delegate.clearParameters(); }
+    @Override public boolean execute() throws SQLException { return this.delegate.execute(); }
+    @Override public int executeUpdate() throws SQLException { return this.delegate.executeUpdate(); }
+    @Override public ResultSetMetaData getMetaData() throws SQLException { return this.delegate.getMetaData(); }
+    @Override public ParameterMetaData getParameterMetaData() throws SQLException { return this.delegate.getParameterMetaData(); }
+    @Override public void setArray(int parameterIndex, Array x) throws SQLException { this.delegate.setArray(parameterIndex, x); }
+    @Override public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException { this.delegate.setAsciiStream(parameterIndex, x); }
+    @Override public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException { this.delegate.setAsciiStream(parameterIndex, x, length); }
+    @Override public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException { this.delegate.setAsciiStream(parameterIndex, x, length); }
+    @Override public void setBigDecimal(int parameterIndex, java.math.BigDecimal x) throws SQLException { this.delegate.setBigDecimal(parameterIndex, x); }
+    @Override public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException { this.delegate.setBinaryStream(parameterIndex, x); }
+    @Override public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException { this.delegate.setBinaryStream(parameterIndex, x, length); }
+    @Override public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException { this.delegate.setBinaryStream(parameterIndex, x, length); }
+    @Override public void setBlob(int parameterIndex, InputStream x) throws SQLException { this.delegate.setBlob(parameterIndex, x); }
+    @Override public void setBlob(int parameterIndex, Blob x) throws SQLException { this.delegate.setBlob(parameterIndex, x); }
+    @Override public void setBlob(int parameterIndex, InputStream x, long length) throws SQLException { this.delegate.setBlob(parameterIndex, x, length); }
+    @Override public void setBoolean(int parameterIndex, boolean x) throws SQLException { this.delegate.setBoolean(parameterIndex, x); }
+    @Override public void setByte(int parameterIndex, byte x) throws SQLException { this.delegate.setByte(parameterIndex, x); }
+    @Override public void setBytes(int parameterIndex, byte[] x) throws SQLException { this.delegate.setBytes(parameterIndex, x); }
+    @Override public void setCharacterStream(int parameterIndex, Reader x) throws SQLException { this.delegate.setCharacterStream(parameterIndex, x); }
+    @Override public void setCharacterStream(int parameterIndex, Reader x, int length) throws SQLException { this.delegate.setCharacterStream(parameterIndex, x, length); }
+    @Override public void setCharacterStream(int parameterIndex, Reader x, long length) throws SQLException { this.delegate.setCharacterStream(parameterIndex, x, length); }
+    @Override public void setClob(int parameterIndex, Reader x) throws SQLException { this.delegate.setClob(parameterIndex, x); }
+    @Override public void setClob(int parameterIndex, Clob x) throws SQLException { this.delegate.setClob(parameterIndex, x); }
+    @Override public void setClob(int parameterIndex, Reader x, long length) throws SQLException { this.delegate.setClob(parameterIndex, x, length); }
+    @Override public void setDate(int parameterIndex, Date x) throws SQLException { this.delegate.setDate(parameterIndex, x); }
+    @Override public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException { this.delegate.setDate(parameterIndex, x, cal); }
+    @Override public void setDouble(int parameterIndex, double x) throws SQLException { this.delegate.setDouble(parameterIndex, x); }
+    @Override public void setFloat(int parameterIndex, float x) throws SQLException { this.delegate.setFloat(parameterIndex, x); }
+    @Override public void setInt(int parameterIndex, int x) throws SQLException { this.delegate.setInt(parameterIndex, x); }
+    @Override public void setLong(int parameterIndex, long x) throws SQLException { this.delegate.setLong(parameterIndex, x); }
+    @Override public void setNCharacterStream(int parameterIndex, Reader x) throws SQLException { this.delegate.setNCharacterStream(parameterIndex, x); }
+    @Override public void setNCharacterStream(int parameterIndex, Reader x, long length) throws SQLException { this.delegate.setNCharacterStream(parameterIndex, x, length); }
+    @Override public void setNClob(int parameterIndex, Reader x) throws SQLException { this.delegate.setNClob(parameterIndex, x); }
+    @Override public void setNClob(int parameterIndex, NClob x) throws SQLException { this.delegate.setNClob(parameterIndex, x); }
+    @Override public void setNClob(int parameterIndex, Reader x, long length) throws SQLException { this.delegate.setNClob(parameterIndex, x, length); }
+    @Override public void setNString(int parameterIndex, String x) throws SQLException { this.delegate.setNString(parameterIndex, x); }
+    @Override public void setNull(int parameterIndex, int sqlType) throws SQLException { this.delegate.setNull(parameterIndex, sqlType); }
+    @Override public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException { this.delegate.setNull(parameterIndex, sqlType, typeName); }
+    @Override public void setObject(int parameterIndex, Object x) throws SQLException { this.delegate.setObject(parameterIndex, x); }
+    @Override public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException { this.delegate.setObject(parameterIndex, x, targetSqlType); }
+    @Override public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException { this.delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength); }
+    @Override public void setRef(int parameterIndex, Ref x) throws SQLException { this.delegate.setRef(parameterIndex, x); }
+    @Override public void setRowId(int parameterIndex, RowId x) throws SQLException { this.delegate.setRowId(parameterIndex, x); }
+    @Override public void setSQLXML(int parameterIndex, SQLXML x) throws SQLException { this.delegate.setSQLXML(parameterIndex, x); }
+    @Override public void setShort(int parameterIndex, short x) throws SQLException { this.delegate.setShort(parameterIndex, x); }
+    @Override public void setString(int parameterIndex, String x) throws SQLException { this.delegate.setString(parameterIndex, x); }
+    @Override public void setTime(int parameterIndex, Time x) throws SQLException { this.delegate.setTime(parameterIndex, x); }
+    @Override public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException { this.delegate.setTime(parameterIndex, x, cal); }
+    @Override public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException { this.delegate.setTimestamp(parameterIndex, x); }
+    @Override public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException { this.delegate.setTimestamp(parameterIndex, x, cal); }
+    @Override public void setURL(int parameterIndex, URL x) throws SQLException { this.delegate.setURL(parameterIndex, x); }
+    @Override public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException { this.delegate.setUnicodeStream(parameterIndex, x, length); }
+
+}
@@ -8,44 +8,127 @@
 package me.denarydev.crystal.db.connection.file;
 
 import me.denarydev.crystal.db.connection.ConnectionFactory;
+import me.denarydev.crystal.db.metrics.DatabaseMetrics;
+import me.denarydev.crystal.db.settings.FlatfileConnectionSettings;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
-import org.slf4j.LoggerFactory;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Base for local databases.
+ * <p>
+ * The connection is owned by a single writer thread. Queries from other threads are submitted
+ * to it as tasks, and all tasks queued at the same time are committed in one transaction.
+ *
  * @author DenaryDev
  * @since 16:40 23.11.2023
  */
 @ApiStatus.Internal
 @ApiStatus.AvailableSince("2.1.0")
 public sealed abstract class FlatfileConnectionFactory implements ConnectionFactory permits H2ConnectionFactory, SQLiteConnectionFactory {
+    protected final FlatfileConnectionSettings settings;
     private final Path file;
+    private final FlatfileWriter writer;
+    private final DatabaseMetrics metrics;
     private NonClosableConnection connection;
 
-    FlatfileConnectionFactory(Path file) {
+    FlatfileConnectionFactory(FlatfileConnectionSettings settings, Path file) {
+        this.settings = settings;
         this.file = file;
+        this.writer = new FlatfileWriter(this, settings.pluginName() + "-" + implementationType().friendlyName() + "-Writer",
+            settings.logger(), settings.writerBatchSize());
+        this.metrics = new DatabaseMetrics(settings.logger(), settings.slowQueryThreshold(), settings.holdThreshold());
+        this.metrics.poolGauges(
+            () -> this.writer.busy() ? 1 : 0,
+            () -> this.connection != null && !this.writer.busy() ? 1 : 0,
+            this.writer::queued
+        );
     }
 
     protected abstract Connection createConnection(Path file) throws SQLException;
 
+    /**
+     * Called after all queued queries are completed, right before the connection is closed.
+     *
+     * @param connection the connection
+     * @throws SQLException if something went wrong
+     */
+    protected void beforeClose(Connection connection) throws SQLException {
+    }
+
+    protected Path file() {
+        return this.file;
+    }
+
+    /**
+     * Returns the shared connection in the writer thread. Other threads get a separate connection
+     * which must be closed by the caller, so they can't interfere with group transactions of the writer.
+     *
+     * @deprecated use {@link #execute(ConnectionFunction)}, which runs the query in the writer
+     */
+    @Deprecated
     @Override
     public @NotNull Connection connection() throws SQLException {
+        if (this.writer.isWriterThread()) {
+            return sharedConnection();
+        }
+        return createConnection(this.file);
+    }
+
+    /**
+     * Returns the connection owned by the writer, must be called only in the writer thread.
+     */
+    NonClosableConnection sharedConnection() throws SQLException {
         NonClosableConnection connection = this.connection;
         if (connection == null || connection.isClosed()) {
-            connection = new NonClosableConnection(createConnection(this.file));
+            connection = new NonClosableConnection(createConnection(this.file), settings.statementCacheSize());
             this.connection = connection;
         }
         return connection;
     }
 
+    /**
+     * Opens a separate connection to the database file, so streamed reads don't block the writer.
+     */
+    @Override
+    public @NotNull Connection cursorConnection() throws SQLException {
+        return createConnection(this.file);
+    }
+
+    @Override
+    public void initialize() {
+        this.writer.start();
+    }
+
     @Override
     public void shutdown() throws SQLException {
+        // let the writer complete queued tasks first
+        this.writer.shutdown();
+        try {
+            if (!this.writer.awaitTermination(settings.shutdownTimeout(), TimeUnit.MILLISECONDS)) {
+                settings.logger().warn("Timed out waiting for queued " + implementationType().friendlyName() + " queries to complete");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
         if (this.connection != null) {
-            this.connection.shutdown();
+            try {
+                if (!this.connection.isClosed()) {
+                    beforeClose(this.connection);
+                }
+            } finally {
+                this.connection.shutdown();
+            }
         }
     }
 
@@ -53,9 +136,130 @@ public sealed abstract class FlatfileConnectionFactory implements ConnectionFact
     @Override
     public void connect(@NotNull ConnectionCallback callback) {
         try {
-            callback.accept(connection());
+            execute(connection -> {
+                callback.accept(connection);
+                return null;
+            });
         } catch (Exception ex) {
-            LoggerFactory.getLogger("Crystal").error("An error occurred executing an " + implementationType().name().toLowerCase() + " query", ex);
+            settings.logger().error("An error occurred executing an " + implementationType().name().toLowerCase() + " query", ex);
         }
     }
+
+    @Override
+    public <T> T execute(@NotNull ConnectionFunction<T> function) throws SQLException {
+        // capture the call site before the function is handed over to the writer
+        final var tracked = this.metrics.tracked(function);
+        if (this.writer.isWriterThread()) {
+            return executeInWriter(tracked);
+        }
+
+        final var future = new CompletableFuture<T>();
+        try {
+            this.writer.execute(() -> execute(tracked, future));
+        } catch (RejectedExecutionException ex) {
+            throw new SQLException("Unable to execute a query, the " + implementationType().friendlyName() + " database is shut down", ex);
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof SQLException sql) {
+                throw sql;
+            }
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public <T> void execute(@NotNull ConnectionFunction<T> function, @NotNull CompletableFuture<T> future) {
+        final var tracked = this.metrics.tracked(function);
+        if (!this.writer.isWriterThread()) {
+            ConnectionFactory.super.execute(tracked, future);
+            return;
+        }
+
+        final T result;
+        try {
+            result = executeInWriter(tracked);
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            return;
+        }
+
+        if (this.writer.inTransaction()) {
+            // the result is not durable until the group transaction is committed
+            this.writer.afterCommit(failure -> {
+                if (failure == null) {
+                    future.complete(result);
+                } else {
+                    future.completeExceptionally(failure);
+                }
+            });
+        } else {
+            future.complete(result);
+        }
+    }
+
+    private <T> T executeInWriter(ConnectionFunction<T> function) throws SQLException {
+        final long start = System.nanoTime();
+        try {
+            final var connection = sharedConnection();
+            if (!this.writer.inTransaction()) {
+                return function.apply(connection);
+            }
+
+            // isolate this task, so its failure doesn't roll back the others in the group
+            final var savepoint = connection.setSavepoint();
+            final var enclosing = connection.beginGroupTask(savepoint);
+            try {
+                final var result = function.apply(connection);
+                connection.releaseSavepoint(savepoint);
+                return result;
+            } catch (SQLException | RuntimeException ex) {
+                connection.rollback(savepoint);
+                throw ex;
+            } finally {
+                connection.endGroupTask(enclosing);
+            }
+        } catch (SQLException | RuntimeException ex) {
+            this.metrics.recordError();
+            throw ex;
+        } finally {
+            this.metrics.recordUsage(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public @NotNull DatabaseMetrics metrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Executes a task in the writer thread outside of group transactions.
+     *
+     * @param task the task to execute
+     */
+    protected void executeMaintenance(ConnectionCallback task) {
+        this.writer.executeMaintenance(() -> {
+            try {
+                task.accept(sharedConnection());
+            } catch (SQLException ex) {
+                settings.logger().error("An error occurred executing an " + implementationType().name().toLowerCase() + " maintenance task", ex);
+            }
+        });
+    }
+
+    @Override
+    public int parallelism() {
+        // queries are serialized by the writer, allow enough of them to be queued for group commits
+        return settings.writerBatchSize();
+    }
+
+    @Override
+    public @Nullable ExecutorService createExecutor(@NotNull String name) {
+        return this.writer;
+    }
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.connection.file;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The only thread which uses the flatfile connection.
+ * <p>
+ * Queued tasks are drained in cycles, each cycle is executed in one transaction (group commit).
+ *
+ * @author DenaryDev
+ * @since 14:03 18.10.2026
+ */
+final class FlatfileWriter extends AbstractExecutorService {
+    private final FlatfileConnectionFactory factory;
+    private final Logger logger;
+    private final int batchSize;
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+    private final Queue<Runnable> maintenance = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private final List<Consumer<SQLException>> commitListeners = new ArrayList<>();
+    private volatile boolean shutdown;
+    private volatile boolean busy;
+    private boolean inTransaction;
+
+    FlatfileWriter(FlatfileConnectionFactory factory, String name, Logger logger, int batchSize) {
+        this.factory = factory;
+        this.logger = logger;
+        this.batchSize = batchSize;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Whether the current thread is the writer thread.
+     */
+    boolean isWriterThread() {
+        return Thread.currentThread() == this.thread;
+    }
+
+    /**
+     * Whether the writer thread is inside a group transaction. Must only be called from the writer thread.
+     */
+    boolean inTransaction() {
+        return this.inTransaction;
+    }
+
+    /**
+     * Registers a listener which is called after the current group transaction is committed,
+     * with {@code null} on success or the exception which prevented the commit.
+     * Must only be called from the writer thread while {@link #inTransaction()}.
+     */
+    void afterCommit(Consumer<SQLException> listener) {
+        this.commitListeners.add(listener);
+    }
+
+    private void run() {
+        final List<Runnable> batch = new ArrayList<>(this.batchSize);
+        while (!this.shutdown || !this.queue.isEmpty()) {
+            try {
+                final var first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    this.queue.drainTo(batch, this.batchSize - 1);
+                    runBatch(batch);
+                }
+
+                Runnable task;
+                while ((task = this.maintenance.poll()) != null) {
+                    runTask(task);
+                }
+            } catch (InterruptedException e) {
+                // shutdownNow, stop immediately
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void runBatch(List<Runnable> batch) {
+        if (batch.size() == 1) {
+            // nothing to group, let the task run in auto-commit mode
+            runTask(batch.get(0));
+            return;
+        }
+
+        final Connection connection;
+        try {
+            connection = this.factory.sharedConnection();
+            connection.setAutoCommit(false);
+        } catch (SQLException ex) {
+            // no group transaction, run the tasks one by one, so each of them fails or completes on its own
+            this.logger.error("Unable to start a group transaction of " + batch.size() + " "
+                + this.factory.implementationType().friendlyName() + " queries", ex);
+            for (final var task : batch) {
+                runTask(task);
+            }
+            return;
+        }
+
+        SQLException failure = null;
+        try {
+            this.inTransaction = true;
+            try {
+                for (final var task : batch) {
+                    runTask(task);
+                }
+                connection.commit();
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                this.inTransaction = false;
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            this.logger.error("An error occurred committing " + batch.size() + " " + this.factory.implementationType().friendlyName() + " queries", ex);
+            failure = ex;
+        }
+
+        for (final var listener : this.commitListeners) {
+            listener.accept(failure);
+        }
+        this.commitListeners.clear();
+    }
+
+    private void runTask(Runnable task) {
+        this.busy = true;
+        try {
+            if (task instanceof QueuedTask queued) {
+                this.factory.metrics().recordAcquisition(System.nanoTime() - queued.queuedAt());
+                queued.task().run();
+            } else {
+                task.run();
+            }
+        } catch (RuntimeException ex) {
+            this.logger.error("An error occurred executing an " + this.factory.implementationType().friendlyName() + " task", ex);
+        } finally {
+            this.busy = false;
+        }
+    }
+
+    /**
+     * Whether the writer thread is executing a task right now.
+     */
+    boolean busy() {
+        return this.busy;
+    }
+
+    /**
+     * Returns the amount of tasks waiting for the writer thread.
+     */
+    int queued() {
+        return this.queue.size();
+    }
+
+    /**
+     * Queues a task which must be executed outside of group transactions, like checkpoints.
+     */
+    void executeMaintenance(Runnable task) {
+        if (!this.shutdown) {
+            this.maintenance.add(task);
+        }
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        if (this.shutdown) {
+            throw new RejectedExecutionException(this.thread.getName() + " has been shut down");
+        }
+        this.queue.add(new QueuedTask(command, System.nanoTime()));
+    }
+
+    @Override
+    public void shutdown() {
+        this.shutdown = true;
+    }
+
+    @Override
+    public @NotNull List<Runnable> shutdownNow() {
+        this.shutdown = true;
+        final List<Runnable> remaining = new ArrayList<>();
+        for (final var task : this.queue) {
+            remaining.add(task instanceof QueuedTask queued ? queued.task() : task);
+        }
+        this.queue.clear();
+        this.thread.interrupt();
+        return remaining;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.shutdown && !this.thread.isAlive();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        this.thread.join(Math.max(1, unit.toMillis(timeout)));
+        return !this.thread.isAlive();
+    }
+
+    private record QueuedTask(Runnable task, long queuedAt) implements Runnable {
+        @Override
+        public void run() {
+            this.task.run();
+        }
+    }
+}
@@ -8,14 +8,23 @@
 package me.denarydev.crystal.db.connection.file;
 
 import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.dialect.StatementProcessor;
+import me.denarydev.crystal.db.settings.FlatfileConnectionSettings;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -25,10 +34,11 @@ import java.util.function.Function;
 @ApiStatus.Internal
 @ApiStatus.AvailableSince("2.1.0")
 public final class H2ConnectionFactory extends FlatfileConnectionFactory {
+    private final StatementProcessor statementProcessor = new StatementProcessor('`', Map.of("LIKE", "ILIKE"), Set.of("value"));
     private Constructor<?> connectionConstructor;
 
-    public H2ConnectionFactory(Path file) {
-        super(file);
+    public H2ConnectionFactory(FlatfileConnectionSettings settings, Path file) {
+        super(settings, file);
     }
 
     @Override
@@ -38,6 +48,7 @@ public final class H2ConnectionFactory extends FlatfileConnectionFactory {
 
     @Override
     public void initialize() {
+        super.initialize();
         try {
             Class<?> clazz = Class.forName("org.h2.jdbc.JdbcConnection");
             this.connectionConstructor = clazz.getConstructor(String.class, Properties.class, String.class, Object.class, boolean.class);
@@ -48,8 +59,21 @@ public final class H2ConnectionFactory extends FlatfileConnectionFactory {
 
     @Override
     protected Connection createConnection(Path file) throws SQLException {
+        final var connection = open(file);
+
+        // in-memory database starts empty, restore the last snapshot
+        final var snapshot = snapshotFile();
+        if (settings.h2InMemory() && Files.exists(snapshot)) {
+            try (final var statement = connection.createStatement()) {
+                statement.execute("RUNSCRIPT FROM '" + escape(snapshot) + "' COMPRESSION ZIP");
+            }
+        }
+        return connection;
+    }
+
+    private Connection open(Path file) throws SQLException {
         try {
-            return (Connection) this.connectionConstructor.newInstance("jdbc:h2:" + file.toAbsolutePath(), new Properties(), null, null, false);
+            return (Connection) this.connectionConstructor.newInstance(url(file), new Properties(), null, null, false);
         } catch (ReflectiveOperationException e) {
             if (e.getCause() instanceof SQLException) {
                 throw (SQLException) e.getCause();
@@ -58,11 +82,89 @@ public final class H2ConnectionFactory extends FlatfileConnectionFactory {
         }
     }
 
+    @Override
+    public @NotNull Connection cursorConnection() throws SQLException {
+        // the shared connection restores the in-memory snapshot, open it first
+        execute(connection -> null);
+        return open(file());
+    }
+
+    /**
+     * Builds the connection url with tuning options from the settings.
+     *
+     * @param file the database file
+     * @return connection url
+     */
+    protected String url(Path file) {
+        final var builder = new StringBuilder("jdbc:h2:");
+        if (settings.h2InMemory()) {
+            builder.append("mem:").append(file.getFileName());
+        } else {
+            builder.append(file.toAbsolutePath());
+        }
+
+        // the database is closed on shutdown, don't let the shutdown hook close it before
+        builder.append(";DB_CLOSE_ON_EXIT=FALSE");
+        builder.append(";CACHE_SIZE=").append(settings.h2CacheSize());
+        builder.append(";LOCK_TIMEOUT=").append(settings.h2LockTimeout());
+        if (!settings.h2InMemory()) {
+            builder.append(";WRITE_DELAY=").append(settings.h2WriteDelay());
+            if (settings.h2Compress()) {
+                builder.append(";COMPRESS=TRUE");
+            }
+        }
+        for (final var option : settings.h2Options().entrySet()) {
+            builder.append(';').append(option.getKey()).append('=').append(option.getValue());
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void scheduleMaintenance(@NotNull ScheduledExecutorService scheduler) {
+        final var interval = settings.h2SnapshotInterval();
+        if (settings.h2InMemory() && interval > 0) {
+            scheduler.scheduleWithFixedDelay(() -> executeMaintenance(this::snapshot), interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void beforeClose(Connection connection) throws SQLException {
+        if (settings.h2InMemory()) {
+            snapshot(connection);
+        }
+    }
+
+    /**
+     * Writes the content of the in-memory database to the snapshot file.
+     *
+     * @param connection the database connection
+     * @throws SQLException if the snapshot could not be written
+     */
+    private void snapshot(Connection connection) throws SQLException {
+        final var snapshot = snapshotFile();
+        final var temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (final var statement = connection.createStatement()) {
+            statement.execute("SCRIPT TO '" + escape(temp) + "' COMPRESSION ZIP");
+        }
+
+        // replace the previous snapshot only when the new one is complete
+        try {
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new SQLException("Unable to replace H2 snapshot " + snapshot, e);
+        }
+    }
+
+    private Path snapshotFile() {
+        return file().resolveSibling(file().getFileName() + ".snapshot.zip").toAbsolutePath();
+    }
+
+    private static String escape(Path path) {
+        return path.toString().replace("'", "''");
+    }
+
     @Override
     public Function<String, String> statementProcessor() {
-        return s -> s.replace('\'', '`')
-            .replace("LIKE", "ILIKE")
-            .replace("value", "`value`")
-            .replace("``value``", "`value`");
+        return this.statementProcessor;
     }
 }
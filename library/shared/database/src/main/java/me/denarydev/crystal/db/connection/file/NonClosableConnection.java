@@ -24,29 +24,151 @@ import java.sql.SQLXML;
 import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A wrapper around a {@link Connection} which blocks usage of the default {@link #close()} method.
+ * <p>
+ * Statements created by {@link #prepareStatement(String)} are kept in a bounded LRU cache
+ * and returned to it when closed, so frequently used statements are compiled only once.
+ * <p>
+ * While a task runs inside a group transaction, the task can't end the transaction:
+ * {@link #commit()} and {@link #setAutoCommit(boolean)} are ignored, since the group is committed as a whole,
+ * and {@link #rollback()} only rolls back to the savepoint of the task.
  */
 @ApiStatus.Internal
 @ApiStatus.AvailableSince("2.1.0")
 public class NonClosableConnection implements Connection {
     private final Connection delegate;
+    private final int statementCacheSize;
+    private final LinkedHashMap<String, CachedPreparedStatement> statementCache;
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    // confined to the writer thread, other threads never get the shared connection
+    private Savepoint taskSavepoint;
 
     public NonClosableConnection(Connection delegate) {
+        this(delegate, 0);
+    }
+
+    @ApiStatus.AvailableSince("2.2.0")
+    public NonClosableConnection(Connection delegate, int statementCacheSize) {
         this.delegate = delegate;
+        this.statementCacheSize = statementCacheSize;
+        this.statementCache = new LinkedHashMap<>(16, 0.75f, true);
     }
 
     /**
      * Actually {@link #close() closes} the underlying connection.
      */
     public final void shutdown() throws SQLException {
+        synchronized (this.statementCache) {
+            for (final var statement : this.statementCache.values()) {
+                statement.delegate().close();
+            }
+            this.statementCache.clear();
+        }
         this.delegate.close();
     }
 
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        if (this.statementCacheSize <= 0) {
+            return this.delegate.prepareStatement(sql);
+        }
+
+        // take the statement out of the cache while it is in use
+        final CachedPreparedStatement cached;
+        synchronized (this.statementCache) {
+            cached = this.statementCache.remove(sql);
+        }
+        if (cached != null && !cached.delegate().isClosed()) {
+            this.statementCacheHits.incrementAndGet();
+            return new CachedPreparedStatement(this, sql, cached.delegate());
+        }
+
+        this.statementCacheMisses.incrementAndGet();
+        return new CachedPreparedStatement(this, sql, this.delegate.prepareStatement(sql));
+    }
+
+    /**
+     * Returns a closed statement to the cache, or closes it if the cache already has one for this sql.
+     */
+    void release(String sql, CachedPreparedStatement statement) throws SQLException {
+        if (statement.delegate().isClosed()) {
+            return;
+        }
+        if (!statement.reusable()) {
+            statement.delegate().close();
+            return;
+        }
+        try {
+            statement.reset();
+        } catch (SQLException ex) {
+            statement.delegate().close();
+            throw ex;
+        }
+
+        PreparedStatement evicted = null;
+        synchronized (this.statementCache) {
+            if (this.statementCache.containsKey(sql)) {
+                evicted = statement.delegate();
+            } else {
+                this.statementCache.put(sql, statement);
+                if (this.statementCache.size() > this.statementCacheSize) {
+                    final var eldest = this.statementCache.entrySet().iterator().next();
+                    this.statementCache.remove(eldest.getKey());
+                    evicted = eldest.getValue().delegate();
+                }
+            }
+        }
+        if (evicted != null) {
+            evicted.close();
+        }
+    }
+
+    /**
+     * Confines transaction control to the savepoint of a task running inside a group transaction.
+     * Must only be called from the writer thread.
+     *
+     * @param savepoint the savepoint of the task
+     * @return the savepoint of the enclosing task, to be passed to {@link #endGroupTask(Savepoint)}
+     */
+    Savepoint beginGroupTask(Savepoint savepoint) {
+        final var previous = this.taskSavepoint;
+        this.taskSavepoint = savepoint;
+        return previous;
+    }
+
+    /**
+     * Ends the task started by {@link #beginGroupTask(Savepoint)}.
+     *
+     * @param previous the savepoint of the enclosing task, or {@code null}
+     */
+    void endGroupTask(Savepoint previous) {
+        this.taskSavepoint = previous;
+    }
+
+    /**
+     * Returns the amount of {@link #prepareStatement(String)} calls served from the statement cache.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public long statementCacheHits() {
+        return this.statementCacheHits.get();
+    }
+
+    /**
+     * Returns the amount of {@link #prepareStatement(String)} calls which compiled a new statement.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public long statementCacheMisses() {
+        return this.statementCacheMisses.get();
+    }
+
     @Override
     public final void close() {
         // do nothing
@@ -68,13 +190,36 @@ public class NonClosableConnection implements Connection {
 
     // Forward to the delegate connection
     @Override public Statement createStatement() throws SQLException { return this.delegate.createStatement(); }
-    @Override public PreparedStatement prepareStatement(String sql) throws SQLException { return this.delegate.prepareStatement(sql); }
     @Override public CallableStatement prepareCall(String sql) throws SQLException { return this.delegate.prepareCall(sql); }
     @Override public String nativeSQL(String sql) throws SQLException { return this.delegate.nativeSQL(sql); }
-    @Override public void setAutoCommit(boolean autoCommit) throws SQLException { this.delegate.setAutoCommit(autoCommit); }
     @Override public boolean getAutoCommit() throws SQLException { return this.delegate.getAutoCommit(); }
-    @Override public void commit() throws SQLException { this.delegate.commit(); }
-    @Override public void rollback() throws SQLException { this.delegate.rollback(); }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        // the group transaction stays open until all of its tasks are done
+        if (this.taskSavepoint == null) {
+            this.delegate.setAutoCommit(autoCommit);
+        }
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        // the changes are committed with the group
+        if (this.taskSavepoint == null) {
+            this.delegate.commit();
+        }
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        // don't roll back the other tasks of the group
+        if (this.taskSavepoint != null) {
+            this.delegate.rollback(this.taskSavepoint);
+        } else {
+            this.delegate.rollback();
+        }
+    }
+
     @Override public boolean isClosed() throws SQLException { return this.delegate.isClosed(); }
     @Override public DatabaseMetaData getMetaData() throws SQLException { return this.delegate.getMetaData(); }
     @Override public void setReadOnly(boolean readOnly) throws SQLException { this.delegate.setReadOnly(readOnly); }
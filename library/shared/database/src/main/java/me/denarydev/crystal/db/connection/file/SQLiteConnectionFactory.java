@@ -8,6 +8,8 @@
 package me.denarydev.crystal.db.connection.file;
 
 import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.dialect.StatementProcessor;
+import me.denarydev.crystal.db.settings.FlatfileConnectionSettings;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
@@ -15,7 +17,15 @@ import java.lang.reflect.Constructor;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
@@ -25,10 +35,17 @@ import java.util.function.Function;
 @ApiStatus.Internal
 @ApiStatus.AvailableSince("2.1.0")
 public final class SQLiteConnectionFactory extends FlatfileConnectionFactory {
+    private final StatementProcessor statementProcessor = StatementProcessor.quoting('`');
+    private static final int SQLITE_OPEN_READONLY = 0x00000001;
+    private static final int SQLITE_BUSY = 5;
+
     private Constructor<?> connectionConstructor;
+    private final BlockingQueue<NonClosableConnection> readConnections = new LinkedBlockingQueue<>();
+    private final List<NonClosableConnection> openedReadConnections = new CopyOnWriteArrayList<>();
+    private Semaphore readPermits;
 
-    public SQLiteConnectionFactory(Path file) {
-        super(file);
+    public SQLiteConnectionFactory(FlatfileConnectionSettings settings, Path file) {
+        super(settings, file);
     }
 
     @Override
@@ -38,18 +55,38 @@ public final class SQLiteConnectionFactory extends FlatfileConnectionFactory {
 
     @Override
     public void initialize() {
+        super.initialize();
         try {
             Class<?> clazz = Class.forName("org.sqlite.jdbc4.JDBC4Connection");
             this.connectionConstructor = clazz.getConstructor(String.class, String.class, Properties.class);
         } catch (ReflectiveOperationException ex) {
             throw new RuntimeException(ex);
         }
+
+        final var readParallelism = readParallelism();
+        if (readParallelism > 0) {
+            this.readPermits = new Semaphore(readParallelism);
+        }
+    }
+
+    @Override
+    public void shutdown() throws SQLException {
+        super.shutdown();
+        for (final var connection : this.openedReadConnections) {
+            connection.shutdown();
+        }
+        this.openedReadConnections.clear();
+        this.readConnections.clear();
     }
 
     @Override
     protected Connection createConnection(Path file) throws SQLException {
+        return createConnection(file, properties());
+    }
+
+    private Connection createConnection(Path file, Properties properties) throws SQLException {
         try {
-            return (Connection) this.connectionConstructor.newInstance("jdbc:sqlite:" + file.toAbsolutePath(), file.toAbsolutePath().toString(), new Properties());
+            return (Connection) this.connectionConstructor.newInstance("jdbc:sqlite:" + file.toAbsolutePath(), file.toAbsolutePath().toString(), properties);
         } catch (ReflectiveOperationException e) {
             if (e.getCause() instanceof SQLException) {
                 throw (SQLException) e.getCause();
@@ -58,8 +95,122 @@ public final class SQLiteConnectionFactory extends FlatfileConnectionFactory {
         }
     }
 
+    /**
+     * Creates the pragmas applied by the driver when the connection is opened.
+     *
+     * @return connection properties
+     */
+    protected Properties properties() {
+        final var properties = new Properties();
+        properties.setProperty("journal_mode", settings.sqliteJournalMode());
+        properties.setProperty("synchronous", settings.sqliteSynchronous());
+        properties.setProperty("mmap_size", String.valueOf(settings.sqliteMmapSize()));
+        properties.setProperty("cache_size", String.valueOf(settings.sqliteCacheSize()));
+        properties.setProperty("temp_store", settings.sqliteTempStore());
+        properties.setProperty("busy_timeout", String.valueOf(settings.sqliteBusyTimeout()));
+        return properties;
+    }
+
+    @Override
+    public int readParallelism() {
+        return settings.sqliteJournalMode().equalsIgnoreCase("WAL") ? settings.sqliteReadConnections() : 0;
+    }
+
+    @Override
+    public <T> T execute(boolean readOnly, @NotNull ConnectionFunction<T> function) throws SQLException {
+        if (!readOnly || this.readPermits == null) {
+            return execute(function);
+        }
+
+        // record the read like the writer records its tasks
+        final var tracked = metrics().tracked(function);
+        final long start = System.nanoTime();
+        try {
+            if (!this.readPermits.tryAcquire(settings.sqliteBusyTimeout(), TimeUnit.MILLISECONDS)) {
+                metrics().recordTimeout();
+                metrics().recordError();
+                throw new SQLTransientConnectionException("Timed out waiting for a read-only connection after " + settings.sqliteBusyTimeout() + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            metrics().recordError();
+            throw new SQLException("Interrupted while waiting for a read-only connection", e);
+        }
+        metrics().recordAcquisition(System.nanoTime() - start);
+
+        final long acquired = System.nanoTime();
+        try {
+            var connection = this.readConnections.poll();
+            if (connection == null || connection.isClosed()) {
+                connection = createReadConnection();
+            }
+            try {
+                return tracked.apply(connection);
+            } finally {
+                this.readConnections.offer(connection);
+            }
+        } catch (SQLException | RuntimeException ex) {
+            if (ex instanceof SQLException sql && (sql.getErrorCode() & 0xff) == SQLITE_BUSY) {
+                metrics().recordTimeout();
+            }
+            metrics().recordError();
+            throw ex;
+        } finally {
+            metrics().recordUsage(System.nanoTime() - acquired);
+            this.readPermits.release();
+        }
+    }
+
+    private NonClosableConnection createReadConnection() throws SQLException {
+        final var connection = new NonClosableConnection(createConnection(file(), readOnlyProperties()), settings.statementCacheSize());
+        this.openedReadConnections.add(connection);
+        return connection;
+    }
+
+    private Properties readOnlyProperties() {
+        final var properties = properties();
+        // the journal mode is persistent and can't be changed by a read-only connection
+        properties.remove("journal_mode");
+        properties.setProperty("open_mode", String.valueOf(SQLITE_OPEN_READONLY));
+        return properties;
+    }
+
+    /**
+     * Opens a read-only connection in WAL mode, so streamed reads never block the writer.
+     * In other journal modes the reader holds a shared lock until the connection is closed.
+     */
+    @Override
+    public @NotNull Connection cursorConnection() throws SQLException {
+        if (settings.sqliteJournalMode().equalsIgnoreCase("WAL")) {
+            // make sure the database exists and is switched to WAL before opening it read-only
+            execute(connection -> null);
+            return createConnection(file(), readOnlyProperties());
+        }
+        return super.cursorConnection();
+    }
+
+    @Override
+    public void scheduleMaintenance(@NotNull ScheduledExecutorService scheduler) {
+        final var interval = settings.sqliteCheckpointInterval();
+        if (interval > 0 && settings.sqliteJournalMode().equalsIgnoreCase("WAL")) {
+            // keep the WAL file small, SQLite only checkpoints automatically on commit
+            scheduler.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Moves the content of the WAL file into the database file without blocking readers.
+     */
+    public void checkpoint() {
+        executeMaintenance(connection -> {
+            try (final var statement = connection.createStatement()) {
+                statement.execute("PRAGMA wal_checkpoint(PASSIVE)");
+            }
+        });
+    }
+
     @Override
     public Function<String, String> statementProcessor() {
-        return s -> s.replace('\'', '`');
+        return this.statementProcessor;
     }
 }
@@ -9,16 +9,26 @@ package me.denarydev.crystal.db.connection.hikari;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import me.denarydev.crystal.db.concurrent.CircuitBreaker;
+import me.denarydev.crystal.db.concurrent.DatabaseThreadFactory;
+import me.denarydev.crystal.db.concurrent.VirtualThreads;
 import me.denarydev.crystal.db.connection.ConnectionFactory;
+import me.denarydev.crystal.db.metrics.DatabaseMetrics;
 import me.denarydev.crystal.db.settings.HikariConnectionSettings;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author DenaryDev
@@ -28,10 +38,14 @@ import java.util.concurrent.TimeUnit;
 @ApiStatus.AvailableSince("2.1.0")
 public abstract sealed class HikariConnectionFactory implements ConnectionFactory permits DriverBasedHikariConnectionFactory {
     private final HikariConnectionSettings settings;
+    private final DatabaseMetrics metrics;
     private HikariDataSource hikari;
+    private ReplicaRouter replicas;
+    private CircuitBreaker circuitBreaker;
 
     public HikariConnectionFactory(HikariConnectionSettings settings) {
         this.settings = settings;
+        this.metrics = new DatabaseMetrics(settings.logger(), settings.slowQueryThreshold(), settings.holdThreshold());
     }
 
     /**
@@ -86,16 +100,132 @@ public abstract sealed class HikariConnectionFactory implements ConnectionFactor
 
     @Override
     public void initialize() {
+        // get the database port from the config
+        final var port = settings.port() != null ? settings.port() : defaultPort();
+        final var config = createConfig(settings.pluginName() + "-Hikari", settings.address(), port);
+
+        // collect pool metrics
+        config.setMetricsTrackerFactory(new HikariMetricsTracker(this.metrics));
+
+        this.hikari = new HikariDataSource(config);
+        if (settings.circuitBreakerThreshold() > 0) {
+            this.circuitBreaker = new CircuitBreaker(config.getPoolName(), settings.logger(),
+                settings.circuitBreakerThreshold(), settings.circuitBreakerCooldown());
+        }
+        // the primary and all replicas share one warm-up deadline, so startup is delayed at most once
+        final var warmUpDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.connectionTimeout() * 2L);
+        if (settings.warmUp()) {
+            warmUp(this.hikari, warmUpDeadline);
+        }
+
+        final var replicaAddresses = settings.replicas();
+        if (!replicaAddresses.isEmpty()) {
+            this.replicas = new ReplicaRouter(settings.replicaRouting(), settings.replicaRetryDelay(), settings.logger());
+            for (int i = 0; i < replicaAddresses.size(); i++) {
+                final var address = replicaAddresses.get(i);
+                final var separator = address.lastIndexOf(':');
+                final var host = separator > 0 && address.indexOf(':') == separator ? address.substring(0, separator) : address;
+                final var replicaPort = host.equals(address) ? port : address.substring(separator + 1);
+
+                final var replicaConfig = createConfig(settings.pluginName() + "-Hikari-Replica-" + (i + 1), host, replicaPort);
+                replicaConfig.setReadOnly(true);
+                final var dataSource = new HikariDataSource(replicaConfig);
+                if (settings.warmUp()) {
+                    warmUp(dataSource, warmUpDeadline);
+                }
+                this.replicas.add(address, dataSource);
+            }
+        }
+
+        postInitialize();
+    }
+
+    /**
+     * Opens the minimum amount of idle connections in parallel, validates them
+     * and prepares the warm-up statements on each of them.
+     *
+     * @param dataSource the pool to warm up
+     * @param deadline   {@link System#nanoTime()} after which the warm-up is abandoned
+     */
+    private void warmUp(HikariDataSource dataSource, long deadline) {
+        if (deadline - System.nanoTime() <= 0) {
+            this.settings.logger().warn("Skipped warming up {}, the warm-up timed out", dataSource.getPoolName());
+            return;
+        }
+        final var count = Math.max(1, Math.min(this.settings.minimumIdle(), this.settings.maxPoolSize()));
+        final var timeout = this.settings.connectionTimeout();
+        final var statements = this.settings.warmUpStatements().stream().map(statementProcessor()).toList();
+        final var start = System.nanoTime();
+        final var warmed = new AtomicInteger();
+        // hold every connection until all are ready, otherwise the pool hands out the same one again
+        final var ready = new CountDownLatch(count);
+
+        final var executor = Executors.newFixedThreadPool(count, new DatabaseThreadFactory(dataSource.getPoolName() + "-WarmUp"));
+        for (int i = 0; i < count; i++) {
+            executor.execute(() -> {
+                var counted = false;
+                try (final var connection = dataSource.getConnection()) {
+                    // isValid takes whole seconds, and 0 would wait forever
+                    if (!connection.isValid(Math.max(1, (int) TimeUnit.MILLISECONDS.toSeconds(timeout)))) {
+                        throw new SQLException("Connection validation failed");
+                    }
+                    for (final var sql : statements) {
+                        connection.prepareStatement(sql).close();
+                    }
+                    warmed.incrementAndGet();
+                    ready.countDown();
+                    counted = true;
+                    ready.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (SQLException ex) {
+                    this.settings.logger().warn("Failed to warm up a connection of {}", dataSource.getPoolName(), ex);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    // count down on every path, otherwise the other threads hold their connections until the deadline
+                    if (!counted) {
+                        ready.countDown();
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                this.settings.logger().warn("Timed out warming up {}", dataSource.getPoolName());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        this.settings.logger().info("Warmed up {}/{} connections of {} in {} ms", warmed.get(), count, dataSource.getPoolName(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Creates the pool config for the given endpoint.
+     *
+     * @param poolName the pool name, used in logging output
+     * @param address the database address
+     * @param port the database port
+     * @return the config
+     */
+    private HikariConfig createConfig(String poolName, String address, String port) {
         final var config = new HikariConfig();
 
         // set pool name so the logging output can be linked back to us
-        config.setPoolName(settings.pluginName() + "-Hikari");
-
-        // get the database port from the config
-        final var port = settings.port() != null ? settings.port() : defaultPort();
+        config.setPoolName(poolName);
 
-        // allow the implementation to configure the HikariConfig appropriately with these values
-        configureDatabase(config, settings.address(), port, settings.database(), settings.username(), settings.password());
+        final var jdbcUrl = settings.jdbcUrl(address, port);
+        if (jdbcUrl != null) {
+            config.setJdbcUrl(jdbcUrl);
+            config.setUsername(settings.username());
+            config.setPassword(settings.password());
+        } else {
+            // allow the implementation to configure the HikariConfig appropriately with these values
+            configureDatabase(config, address, port, settings.database(), settings.username(), settings.password());
+        }
 
         // get the extra connection properties from the config
         Map<String, Object> properties = new HashMap<>(settings.properties());
@@ -112,14 +242,15 @@ public abstract sealed class HikariConnectionFactory implements ConnectionFactor
         config.setMaxLifetime(this.settings.maxLifetime());
         config.setKeepaliveTime(this.settings.keepAliveTime());
         config.setConnectionTimeout(this.settings.connectionTimeout());
+        if (this.settings.holdThreshold() > 0) {
+            // hikari ignores thresholds below 2 seconds
+            config.setLeakDetectionThreshold(Math.max(2000, this.settings.holdThreshold()));
+        }
 
         // don't perform any initial connection validation - we subsequently call #getConnection
         // to setup the schema anyways
         config.setInitializationFailTimeout(-1);
-
-        this.hikari = new HikariDataSource(config);
-
-        postInitialize();
+        return config;
     }
 
     @Override
@@ -127,6 +258,9 @@ public abstract sealed class HikariConnectionFactory implements ConnectionFactor
         if (this.hikari != null) {
             this.hikari.close();
         }
+        if (this.replicas != null) {
+            this.replicas.shutdown();
+        }
     }
 
     @Override
@@ -135,7 +269,34 @@ public abstract sealed class HikariConnectionFactory implements ConnectionFactor
             throw new SQLException("Unable to get a connection from the pool. (hikari is null)");
         }
 
-        Connection connection = this.hikari.getConnection();
+        final var breaker = this.circuitBreaker;
+        if (breaker != null && !breaker.tryAcquire()) {
+            throw new SQLTransientConnectionException("Unable to get a connection from the pool. (database is unavailable, circuit breaker is open)");
+        }
+
+        final Connection connection;
+        try {
+            connection = this.hikari.getConnection();
+        } catch (SQLException ex) {
+            if (breaker != null) {
+                if (isConnectionFailure(this.hikari, ex)) {
+                    breaker.onFailure();
+                } else {
+                    // the pool is only saturated, the database itself is reachable
+                    breaker.onSuccess();
+                }
+            }
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (breaker != null) {
+                breaker.onFailure();
+            }
+            throw ex;
+        }
+        if (breaker != null) {
+            breaker.onSuccess();
+        }
+
         if (connection == null) {
             throw new SQLException("Unable to get a connection from the pool. (getConnection returned null)");
         }
@@ -145,10 +306,113 @@ public abstract sealed class HikariConnectionFactory implements ConnectionFactor
 
     @Override
     public void connect(@NotNull ConnectionCallback callback) {
-        try (final Connection connection = connection()) {
+        final var tracked = this.metrics.tracked(connection -> {
             callback.accept(connection);
+            return null;
+        });
+        try (final Connection connection = connection()) {
+            tracked.apply(connection);
         } catch (SQLException ex) {
+            this.metrics.recordError();
             settings.logger().error("An error occured executing a SQL query", ex);
         }
     }
+
+    @Override
+    public <T> T execute(@NotNull ConnectionFunction<T> function) throws SQLException {
+        final var tracked = this.metrics.tracked(function);
+        try (final Connection connection = connection()) {
+            return tracked.apply(connection);
+        } catch (SQLException | RuntimeException ex) {
+            this.metrics.recordError();
+            throw ex;
+        }
+    }
+
+    /**
+     * Executes read-only functions on a replica if any are configured and available,
+     * otherwise on the primary.
+     */
+    @Override
+    public <T> T execute(boolean readOnly, @NotNull ConnectionFunction<T> function) throws SQLException {
+        final var tracked = this.metrics.tracked(function);
+        if (readOnly && this.replicas != null) {
+            for (int attempt = 0; attempt < this.replicas.size(); attempt++) {
+                final var replica = this.replicas.acquire();
+                if (replica == null) {
+                    break;
+                }
+                try {
+                    final Connection connection;
+                    try {
+                        connection = replica.connection();
+                    } catch (SQLException ex) {
+                        // try the next one, the replica is marked unhealthy if it failed to connect
+                        continue;
+                    }
+                    try (connection) {
+                        return tracked.apply(connection);
+                    } catch (SQLException | RuntimeException ex) {
+                        this.metrics.recordError();
+                        throw ex;
+                    }
+                } finally {
+                    replica.release();
+                }
+            }
+        }
+        return execute(tracked);
+    }
+
+    /**
+     * Checks whether the pool failed to connect to the database, as opposed to timing out
+     * because all of its connections are in use.
+     * <p>
+     * Hikari sets the last connection error as the cause of its timeout exception,
+     * a timeout without a cause on a pool with live connections means the pool is saturated.
+     *
+     * @param dataSource the pool which threw the exception
+     * @param ex         the exception
+     * @return {@code true} if the database is unreachable
+     */
+    static boolean isConnectionFailure(HikariDataSource dataSource, SQLException ex) {
+        if (!(ex instanceof SQLTransientConnectionException) || ex.getCause() != null) {
+            return true;
+        }
+        final var pool = dataSource.getHikariPoolMXBean();
+        return pool == null || pool.getTotalConnections() == 0;
+    }
+
+    @Override
+    public int readParallelism() {
+        return this.replicas != null ? this.replicas.size() * this.settings.maxPoolSize() : 0;
+    }
+
+    @Override
+    public @NotNull DatabaseMetrics metrics() {
+        return this.metrics;
+    }
+
+    @Override
+    public @Nullable CircuitBreaker circuitBreaker() {
+        return this.circuitBreaker;
+    }
+
+    @Override
+    public int parallelism() {
+        return this.settings.maxPoolSize();
+    }
+
+    @Override
+    public @Nullable ExecutorService createExecutor(@NotNull String name) {
+        if (!this.settings.virtualThreads()) {
+            return null;
+        }
+
+        final var executor = VirtualThreads.newExecutor(name);
+        if (executor == null) {
+            this.settings.logger().warn("Virtual threads are not supported by this Java version, falling back to platform threads");
+        }
+        return executor;
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.connection.hikari;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import me.denarydev.crystal.db.metrics.DatabaseMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forwards Hikari pool metrics to {@link DatabaseMetrics}.
+ *
+ * @author DenaryDev
+ * @since 18:20 18.10.2026
+ */
+final class HikariMetricsTracker implements MetricsTrackerFactory, IMetricsTracker {
+    private final DatabaseMetrics metrics;
+
+    HikariMetricsTracker(DatabaseMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.metrics.poolGauges(poolStats::getActiveConnections, poolStats::getIdleConnections, poolStats::getPendingThreads);
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        this.metrics.recordAcquisition(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        this.metrics.recordUsage(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        this.metrics.recordTimeout();
+    }
+}
@@ -8,6 +8,7 @@
 package me.denarydev.crystal.db.connection.hikari;
 
 import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.dialect.StatementProcessor;
 import me.denarydev.crystal.db.settings.HikariConnectionSettings;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
@@ -21,6 +22,8 @@ import java.util.function.Function;
 @ApiStatus.Internal
 @ApiStatus.AvailableSince("2.1.0")
 public final class MariaDBConnectionFactory extends DriverBasedHikariConnectionFactory {
+    private final StatementProcessor statementProcessor = StatementProcessor.quoting('`');
+
     public MariaDBConnectionFactory(HikariConnectionSettings settings) {
         super(settings);
     }
@@ -47,6 +50,6 @@ public final class MariaDBConnectionFactory extends DriverBasedHikariConnectionF
 
     @Override
     public Function<String, String> statementProcessor() {
-        return s -> s.replace('\'', '`'); // use backticks for quotes
+        return this.statementProcessor;
     }
 }
@@ -8,6 +8,7 @@
 package me.denarydev.crystal.db.connection.hikari;
 
 import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.dialect.StatementProcessor;
 import me.denarydev.crystal.db.settings.HikariConnectionSettings;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
@@ -22,6 +23,8 @@ import java.util.function.Function;
 @ApiStatus.Internal
 @ApiStatus.AvailableSince("2.1.0")
 public final class MySqlConnectionFactory extends DriverBasedHikariConnectionFactory {
+    private final StatementProcessor statementProcessor = StatementProcessor.quoting('`');
+
     public MySqlConnectionFactory(HikariConnectionSettings settings) {
         super(settings);
     }
@@ -72,6 +75,6 @@ public final class MySqlConnectionFactory extends DriverBasedHikariConnectionFac
 
     @Override
     public Function<String, String> statementProcessor() {
-        return s -> s.replace('\'', '`'); // use backticks for quotes
+        return this.statementProcessor;
     }
 }
@@ -8,6 +8,7 @@
 package me.denarydev.crystal.db.connection.hikari;
 
 import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.dialect.StatementProcessor;
 import me.denarydev.crystal.db.settings.HikariConnectionSettings;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
@@ -22,6 +23,8 @@ import java.util.function.Function;
 @ApiStatus.Internal
 @ApiStatus.AvailableSince("2.1.0")
 public final class PostgresConnectionFactory extends DriverBasedHikariConnectionFactory {
+    private final StatementProcessor statementProcessor = StatementProcessor.quoting('"');
+
     public PostgresConnectionFactory(HikariConnectionSettings settings) {
         super(settings);
     }
@@ -48,6 +51,15 @@ public final class PostgresConnectionFactory extends DriverBasedHikariConnection
 
     @Override
     protected void overrideProperties(Map<String, Object> properties) {
+        // https://jdbc.postgresql.org/documentation/use/#connection-parameters
+        properties.putIfAbsent("reWriteBatchedInserts", "true");
+        properties.putIfAbsent("prepareThreshold", "3");
+        properties.putIfAbsent("preparedStatementCacheQueries", "256");
+        properties.putIfAbsent("preparedStatementCacheSizeMiB", "5");
+        properties.putIfAbsent("binaryTransfer", "true");
+        // only used when auto-commit is disabled, otherwise the whole result is fetched at once
+        properties.putIfAbsent("defaultRowFetchSize", "1000");
+
         super.overrideProperties(properties);
 
         // remove the default config properties which don't exist for PostgreSQL
@@ -57,6 +69,6 @@ public final class PostgresConnectionFactory extends DriverBasedHikariConnection
 
     @Override
     public Function<String, String> statementProcessor() {
-        return s -> s.replace('\'', '"');
+        return this.statementProcessor;
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.connection.hikari;
+
+import com.zaxxer.hikari.HikariDataSource;
+import me.denarydev.crystal.db.settings.HikariConnectionSettings.ReplicaRouting;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chooses read replicas for read-only queries and skips replicas which fail to provide connections.
+ *
+ * @author DenaryDev
+ * @since 13:40 18.10.2026
+ */
+final class ReplicaRouter {
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReplicaRouting routing;
+    private final long retryDelay;
+    private final Logger logger;
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReplicaRouter(ReplicaRouting routing, long retryDelay, Logger logger) {
+        this.routing = routing;
+        this.retryDelay = retryDelay;
+        this.logger = logger;
+    }
+
+    void add(String name, HikariDataSource dataSource) {
+        this.replicas.add(new Replica(name, dataSource));
+    }
+
+    int size() {
+        return this.replicas.size();
+    }
+
+    /**
+     * Chooses a healthy replica and counts a pending query on it.
+     *
+     * @return the replica, which must be {@link Replica#release() released}, or {@code null} if all replicas are unhealthy
+     */
+    @Nullable Replica acquire() {
+        final var now = System.currentTimeMillis();
+        Replica chosen = null;
+        if (this.routing == ReplicaRouting.LEAST_PENDING) {
+            for (final var replica : this.replicas) {
+                if (replica.healthy(now) && (chosen == null || replica.pending.get() < chosen.pending.get())) {
+                    chosen = replica;
+                }
+            }
+        } else {
+            final var start = Math.floorMod(this.next.getAndIncrement(), this.replicas.size());
+            for (int i = 0; i < this.replicas.size(); i++) {
+                final var replica = this.replicas.get((start + i) % this.replicas.size());
+                if (replica.healthy(now)) {
+                    chosen = replica;
+                    break;
+                }
+            }
+        }
+        if (chosen != null) {
+            chosen.pending.incrementAndGet();
+        }
+        return chosen;
+    }
+
+    void shutdown() {
+        for (final var replica : this.replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile long unhealthyUntil;
+
+        Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private boolean healthy(long now) {
+            return this.unhealthyUntil <= now;
+        }
+
+        /**
+         * Borrows a connection, marking the replica unhealthy if it cannot connect to the database.
+         * A replica which only ran out of free connections stays healthy.
+         */
+        Connection connection() throws SQLException {
+            try {
+                return this.dataSource.getConnection();
+            } catch (SQLException ex) {
+                if (!HikariConnectionFactory.isConnectionFailure(this.dataSource, ex)) {
+                    throw ex;
+                }
+                if (healthy(System.currentTimeMillis())) {
+                    logger.warn("Read replica {} is unavailable, retrying in {} ms: {}", this.name, retryDelay, ex.getMessage());
+                }
+                this.unhealthyUntil = System.currentTimeMillis() + retryDelay;
+                throw ex;
+            }
+        }
+
+        void release() {
+            this.pending.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.dialect;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Translates statements written in the library's portable syntax into a database dialect.
+ * <p>
+ * Identifiers in single quotes ({@code 'name'}) are rewritten to the identifier quotes of the dialect.
+ * Keywords and reserved identifiers are rewritten only when they are whole words outside of
+ * quotes and comments. Translated statements are memoized, so repeated statements cost a map lookup.
+ *
+ * @author DenaryDev
+ * @since 11:02 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class StatementProcessor implements Function<String, String> {
+    private static final int DEFAULT_CACHE_SIZE = 512;
+
+    private final char identifierQuote;
+    private final Map<String, String> keywords;
+    private final Set<String> reservedIdentifiers;
+    private final int cacheSize;
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param identifierQuote     quote character for identifiers
+     * @param keywords            upper case keywords mapped to their replacements
+     * @param reservedIdentifiers lower case words which must be quoted when used as identifiers
+     */
+    public StatementProcessor(char identifierQuote, @NotNull Map<String, String> keywords, @NotNull Set<String> reservedIdentifiers) {
+        this(identifierQuote, keywords, reservedIdentifiers, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param identifierQuote     quote character for identifiers
+     * @param keywords            upper case keywords mapped to their replacements
+     * @param reservedIdentifiers lower case words which must be quoted when used as identifiers
+     * @param cacheSize           maximum amount of memoized statements
+     */
+    public StatementProcessor(char identifierQuote, @NotNull Map<String, String> keywords, @NotNull Set<String> reservedIdentifiers, int cacheSize) {
+        this.identifierQuote = identifierQuote;
+        this.keywords = Map.copyOf(keywords);
+        this.reservedIdentifiers = Set.copyOf(reservedIdentifiers);
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Creates a processor which only rewrites identifier quotes.
+     *
+     * @param identifierQuote quote character for identifiers
+     * @return the processor
+     */
+    public static @NotNull StatementProcessor quoting(char identifierQuote) {
+        return new StatementProcessor(identifierQuote, Map.of(), Set.of());
+    }
+
+    @Override
+    public String apply(String sql) {
+        final var cached = this.cache.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+
+        final var translated = translate(sql);
+        if (this.cache.size() >= this.cacheSize) {
+            // statements with inlined values can flood the cache, start over instead of growing
+            this.cache.clear();
+        }
+        this.cache.put(sql, translated);
+        return translated;
+    }
+
+    /**
+     * Translates a statement without using the cache.
+     *
+     * @param sql statement in portable syntax
+     * @return statement in the dialect
+     */
+    public @NotNull String translate(@NotNull String sql) {
+        final int length = sql.length();
+        final var builder = new StringBuilder(length + 16);
+
+        int i = 0;
+        while (i < length) {
+            final char c = sql.charAt(i);
+            if (c == '\'') {
+                // portable identifier quote
+                final int end = closing(sql, i, '\'');
+                appendIdentifier(builder, sql.substring(i + 1, end).replace("''", "'"));
+                i = Math.min(end + 1, length);
+            } else if (c == '"' || c == '`') {
+                // already quoted for a specific database, keep as is
+                final int end = closing(sql, i, c);
+                builder.append(sql, i, Math.min(end + 1, length));
+                i = Math.min(end + 1, length);
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                end = end < 0 ? length : end;
+                builder.append(sql, i, end);
+                i = end;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                end = end < 0 ? length : end + 2;
+                builder.append(sql, i, end);
+                i = end;
+            } else if (Character.isLetter(c) || c == '_') {
+                int end = i + 1;
+                while (end < length && isWordPart(sql.charAt(end))) {
+                    end++;
+                }
+                appendWord(builder, sql.substring(i, end));
+                i = end;
+            } else {
+                builder.append(c);
+                i++;
+            }
+        }
+        return builder.toString();
+    }
+
+    private void appendWord(StringBuilder builder, String word) {
+        if (!this.keywords.isEmpty()) {
+            final var replacement = this.keywords.get(word.toUpperCase(Locale.ROOT));
+            if (replacement != null) {
+                builder.append(replacement);
+                return;
+            }
+        }
+        if (!this.reservedIdentifiers.isEmpty() && this.reservedIdentifiers.contains(word.toLowerCase(Locale.ROOT))) {
+            appendIdentifier(builder, word);
+            return;
+        }
+        builder.append(word);
+    }
+
+    private void appendIdentifier(StringBuilder builder, String identifier) {
+        final var quote = String.valueOf(this.identifierQuote);
+        builder.append(this.identifierQuote)
+            .append(identifier.replace(quote, quote + quote))
+            .append(this.identifierQuote);
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    /**
+     * Finds the closing quote, skipping doubled quotes.
+     */
+    private static int closing(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.mapping;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps result set rows to records by column label.
+ * <p>
+ * Record components are matched to column labels ignoring case and underscores,
+ * so {@code playerId} matches {@code player_id} and {@code PLAYERID}.
+ * Column indexes are resolved once per result set shape, and every shape is compiled into a single
+ * {@link MethodHandle} which reads primitive columns without boxing.
+ * <p>
+ * Primitive components receive the JDBC default ({@code 0}/{@code false}) for {@code NULL} values,
+ * use boxed types for nullable columns.
+ *
+ * @author DenaryDev
+ * @since 12:30 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class RecordMapper<R extends Record> {
+    private static final int MAX_SHAPES = 64;
+    private static final MethodType ROW_TYPE = MethodType.methodType(Object.class, ResultSet.class);
+    private static final Map<Class<?>, MethodHandle> READERS = new HashMap<>();
+    private static final MethodHandle ENUM_READER;
+    private static final MethodHandle OBJECT_READER;
+
+    private static final ClassValue<RecordMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected RecordMapper<?> computeValue(Class<?> type) {
+            return new RecordMapper(type, lookup(type));
+        }
+    };
+
+    static {
+        try {
+            final var lookup = MethodHandles.lookup();
+            reader(lookup, ResultSet.class, "getInt", int.class);
+            reader(lookup, ResultSet.class, "getLong", long.class);
+            reader(lookup, ResultSet.class, "getDouble", double.class);
+            reader(lookup, ResultSet.class, "getFloat", float.class);
+            reader(lookup, ResultSet.class, "getShort", short.class);
+            reader(lookup, ResultSet.class, "getByte", byte.class);
+            reader(lookup, ResultSet.class, "getBoolean", boolean.class);
+            reader(lookup, ResultSet.class, "getString", String.class);
+            reader(lookup, ResultSet.class, "getBytes", byte[].class);
+            reader(lookup, ResultSet.class, "getBigDecimal", BigDecimal.class);
+            reader(lookup, RecordMapper.class, "readInteger", Integer.class);
+            reader(lookup, RecordMapper.class, "readLong", Long.class);
+            reader(lookup, RecordMapper.class, "readDouble", Double.class);
+            reader(lookup, RecordMapper.class, "readFloat", Float.class);
+            reader(lookup, RecordMapper.class, "readShort", Short.class);
+            reader(lookup, RecordMapper.class, "readByte", Byte.class);
+            reader(lookup, RecordMapper.class, "readBoolean", Boolean.class);
+            reader(lookup, RecordMapper.class, "readUuid", UUID.class);
+            ENUM_READER = lookup.findStatic(RecordMapper.class, "readEnum", MethodType.methodType(Enum.class, ResultSet.class, int.class, Class.class));
+            OBJECT_READER = lookup.findStatic(RecordMapper.class, "readObject", MethodType.methodType(Object.class, ResultSet.class, int.class, Class.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<R> type;
+    private final RecordComponent[] components;
+    private final String[] keys;
+    private final MethodHandle constructor;
+    private final Map<String, RowMapper<R>> shapes = new ConcurrentHashMap<>();
+
+    private RecordMapper(Class<R> type, MethodHandles.Lookup lookup) {
+        if (!type.isRecord()) {
+            throw new IllegalArgumentException(type.getName() + " is not a record");
+        }
+        this.type = type;
+        this.components = type.getRecordComponents();
+        this.keys = new String[this.components.length];
+        final var parameters = new Class<?>[this.components.length];
+        for (int i = 0; i < this.components.length; i++) {
+            this.keys[i] = normalize(this.components[i].getName());
+            parameters[i] = this.components[i].getType();
+        }
+        try {
+            this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameters));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot access the canonical constructor of " + type.getName()
+                + ", pass a lookup with access to it", e);
+        }
+    }
+
+    /**
+     * Returns the cached mapper for the given record type.
+     * <p>
+     * The record and its canonical constructor must be accessible to this module;
+     * records in unnamed modules (e.g. plugins) always are.
+     *
+     * @param type record type
+     * @return the mapper
+     */
+    @SuppressWarnings("unchecked")
+    public static <R extends Record> @NotNull RecordMapper<R> of(@NotNull Class<R> type) {
+        return (RecordMapper<R>) MAPPERS.get(type);
+    }
+
+    /**
+     * Creates a mapper using the given lookup to access the record constructor.
+     * The mapper is not cached, keep a reference to it.
+     *
+     * @param type   record type
+     * @param lookup lookup with access to the canonical constructor, usually {@code MethodHandles.lookup()}
+     * @return the mapper
+     */
+    public static <R extends Record> @NotNull RecordMapper<R> of(@NotNull Class<R> type, @NotNull MethodHandles.Lookup lookup) {
+        return new RecordMapper<>(type, lookup);
+    }
+
+    /**
+     * Returns a row mapper for result sets with the columns of the given result set.
+     *
+     * @param rs result set
+     * @return row mapper bound to the column indexes of the result set
+     * @throws SQLException if a record component has no matching column
+     */
+    public @NotNull RowMapper<R> bind(@NotNull ResultSet rs) throws SQLException {
+        return bind(rs.getMetaData());
+    }
+
+    /**
+     * Returns a row mapper for result sets with the given columns.
+     *
+     * @param meta result set metadata
+     * @return row mapper bound to the column indexes of the metadata
+     * @throws SQLException if a record component has no matching column
+     */
+    public @NotNull RowMapper<R> bind(@NotNull ResultSetMetaData meta) throws SQLException {
+        final int count = meta.getColumnCount();
+        final var labels = new String[count];
+        final var shape = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            labels[i] = normalize(meta.getColumnLabel(i + 1));
+            shape.append(labels[i]).append(',');
+        }
+
+        final var key = shape.toString();
+        final var cached = this.shapes.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        final var mapper = compile(labels);
+        if (this.shapes.size() >= MAX_SHAPES) {
+            this.shapes.clear();
+        }
+        this.shapes.put(key, mapper);
+        return mapper;
+    }
+
+    /**
+     * Maps all remaining rows of the result set.
+     *
+     * @param rs result set
+     * @return mapped records
+     */
+    public @NotNull List<R> list(@NotNull ResultSet rs) throws SQLException {
+        final var mapper = bind(rs);
+        final var result = new ArrayList<R>();
+        while (rs.next()) {
+            result.add(mapper.map(rs));
+        }
+        return result;
+    }
+
+    /**
+     * Maps the next row of the result set.
+     *
+     * @param rs result set
+     * @return mapped record, or {@code null} if there are no more rows
+     */
+    public @Nullable R first(@NotNull ResultSet rs) throws SQLException {
+        return rs.next() ? bind(rs).map(rs) : null;
+    }
+
+    private RowMapper<R> compile(String[] labels) throws SQLException {
+        final var readers = new MethodHandle[this.components.length];
+        for (int i = 0; i < this.components.length; i++) {
+            int index = -1;
+            for (int column = 0; column < labels.length; column++) {
+                if (labels[column].equals(this.keys[i])) {
+                    index = column + 1;
+                    break;
+                }
+            }
+            if (index < 0) {
+                throw new SQLException("No column for " + this.type.getSimpleName() + "." + this.components[i].getName());
+            }
+            readers[i] = reader(this.components[i].getType(), index);
+        }
+
+        // (ResultSet, ResultSet, ...) -> R, then collapse all arguments into one ResultSet
+        final var filtered = MethodHandles.filterArguments(this.constructor, 0, readers);
+        final var handle = MethodHandles.permuteArguments(filtered, ROW_TYPE.changeReturnType(this.type), new int[readers.length])
+            .asType(ROW_TYPE);
+        return rs -> {
+            try {
+                return this.type.cast(handle.invokeExact(rs));
+            } catch (SQLException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new SQLException(t);
+            }
+        };
+    }
+
+    private static MethodHandle reader(Class<?> type, int index) {
+        final var reader = READERS.get(type);
+        if (reader != null) {
+            return MethodHandles.insertArguments(reader, 1, index);
+        }
+        final var generic = type.isEnum() ? ENUM_READER : OBJECT_READER;
+        return MethodHandles.insertArguments(generic, 1, index, type)
+            .asType(MethodType.methodType(type, ResultSet.class));
+    }
+
+    private static void reader(MethodHandles.Lookup lookup, Class<?> owner, String name, Class<?> type) throws ReflectiveOperationException {
+        final MethodHandle handle;
+        if (owner == ResultSet.class) {
+            handle = lookup.findVirtual(ResultSet.class, name, MethodType.methodType(type, int.class));
+        } else {
+            handle = lookup.findStatic(owner, name, MethodType.methodType(type, ResultSet.class, int.class));
+        }
+        READERS.put(type, handle);
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> type) {
+        final var module = RecordMapper.class.getModule();
+        if (!module.canRead(type.getModule())) {
+            module.addReads(type.getModule());
+        }
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            return MethodHandles.publicLookup();
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static Integer readInteger(ResultSet rs, int index) throws SQLException {
+        final var value = rs.getInt(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Long readLong(ResultSet rs, int index) throws SQLException {
+        final var value = rs.getLong(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Double readDouble(ResultSet rs, int index) throws SQLException {
+        final var value = rs.getDouble(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Float readFloat(ResultSet rs, int index) throws SQLException {
+        final var value = rs.getFloat(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Short readShort(ResultSet rs, int index) throws SQLException {
+        final var value = rs.getShort(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Byte readByte(ResultSet rs, int index) throws SQLException {
+        final var value = rs.getByte(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Boolean readBoolean(ResultSet rs, int index) throws SQLException {
+        final var value = rs.getBoolean(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static UUID readUuid(ResultSet rs, int index) throws SQLException {
+        final var value = rs.getObject(index);
+        if (value == null || value instanceof UUID) {
+            return (UUID) value;
+        }
+        if (value instanceof byte[] bytes && bytes.length == 16) {
+            final var buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+        return UUID.fromString(value.toString());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Enum<?> readEnum(ResultSet rs, int index, Class type) throws SQLException {
+        final var value = rs.getString(index);
+        return value == null ? null : Enum.valueOf(type, value);
+    }
+
+    private static Object readObject(ResultSet rs, int index, Class<?> type) throws SQLException {
+        return rs.getObject(index, type);
+    }
+}
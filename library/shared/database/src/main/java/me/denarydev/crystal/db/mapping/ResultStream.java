@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.mapping;
+
+import me.denarydev.crystal.db.connection.ConnectionFactory;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily maps the rows of a query while they are fetched from the database.
+ * <p>
+ * The query runs on a dedicated {@link ConnectionFactory#cursorConnection() cursor connection},
+ * with a fetch size suitable for the driver, so only one batch of rows is held in memory:
+ * <ul>
+ *     <li>MySQL streams rows one by one ({@code fetchSize = Integer.MIN_VALUE})</li>
+ *     <li>PostgreSQL uses a server-side cursor, which requires autocommit to be disabled</li>
+ *     <li>other drivers receive the fetch size as given</li>
+ * </ul>
+ * The statement and connection are closed when the iterator is exhausted or closed.
+ * Streams must be closed, preferably with try-with-resources.
+ * <p>
+ * {@link SQLException}s thrown while iterating are wrapped in {@link IllegalStateException}.
+ *
+ * @author DenaryDev
+ * @since 13:05 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class ResultStream<T> implements Iterator<T>, AutoCloseable {
+    private final Connection connection;
+    private final boolean restoreAutoCommit;
+    private final PreparedStatement statement;
+    private final ResultSet rs;
+    private final RowMapper<T> mapper;
+    private boolean fetched;
+    private boolean hasNext;
+    private boolean closed;
+
+    private ResultStream(Connection connection, boolean restoreAutoCommit, PreparedStatement statement, ResultSet rs, RowMapper<T> mapper) {
+        this.connection = connection;
+        this.restoreAutoCommit = restoreAutoCommit;
+        this.statement = statement;
+        this.rs = rs;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Executes a query and maps its rows with the given mapper.
+     *
+     * @param factory   connection factory
+     * @param sql       query, rewritten with the factory statement processor
+     * @param binder    binds query parameters
+     * @param mapper    maps a row
+     * @param fetchSize amount of rows fetched in one round-trip
+     * @return lazy iterator over the mapped rows
+     * @throws SQLException if the query fails
+     */
+    public static <T> @NotNull ResultStream<T> open(@NotNull ConnectionFactory factory, @NotNull String sql, @NotNull StatementBinder binder,
+                                                    @NotNull RowMapper<T> mapper, int fetchSize) throws SQLException {
+        return execute(factory, sql, binder, rs -> mapper, fetchSize);
+    }
+
+    /**
+     * Executes a query and maps its rows to records.
+     *
+     * @param factory   connection factory
+     * @param sql       query, rewritten with the factory statement processor
+     * @param binder    binds query parameters
+     * @param type      record type
+     * @param fetchSize amount of rows fetched in one round-trip
+     * @return lazy iterator over the mapped rows
+     * @throws SQLException if the query fails
+     * @see RecordMapper
+     */
+    public static <R extends Record> @NotNull ResultStream<R> open(@NotNull ConnectionFactory factory, @NotNull String sql, @NotNull StatementBinder binder,
+                                                                   @NotNull Class<R> type, int fetchSize) throws SQLException {
+        final var recordMapper = RecordMapper.of(type);
+        return execute(factory, sql, binder, recordMapper::bind, fetchSize);
+    }
+
+    private static <T> ResultStream<T> execute(ConnectionFactory factory, String sql, StatementBinder binder,
+                                               MapperFactory<T> mapperFactory, int fetchSize) throws SQLException {
+        final var connection = factory.cursorConnection();
+        boolean restoreAutoCommit = false;
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(factory.statementProcessor().apply(sql), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            switch (factory.implementationType()) {
+                case MYSQL -> statement.setFetchSize(Integer.MIN_VALUE);
+                case POSTGRESQL -> {
+                    if (connection.getAutoCommit()) {
+                        connection.setAutoCommit(false);
+                        restoreAutoCommit = true;
+                    }
+                    statement.setFetchSize(fetchSize);
+                }
+                default -> statement.setFetchSize(fetchSize);
+            }
+            binder.bind(statement);
+            final var rs = statement.executeQuery();
+            return new ResultStream<>(connection, restoreAutoCommit, statement, rs, mapperFactory.create(rs));
+        } catch (SQLException | RuntimeException ex) {
+            close(connection, restoreAutoCommit, statement, null, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Wraps this iterator in a sequential stream, which closes the iterator when it is closed.
+     *
+     * @return stream of the mapped rows
+     */
+    public @NotNull Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(this::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!this.fetched) {
+            if (this.closed) {
+                return false;
+            }
+            try {
+                this.hasNext = this.rs.next();
+            } catch (SQLException e) {
+                close();
+                throw new IllegalStateException("Failed to fetch the next row", e);
+            }
+            this.fetched = true;
+            if (!this.hasNext) {
+                close();
+            }
+        }
+        return this.hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        this.fetched = false;
+        try {
+            return this.mapper.map(this.rs);
+        } catch (SQLException e) {
+            close();
+            throw new IllegalStateException("Failed to map a row", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.hasNext = false;
+        this.fetched = true;
+        final var exception = close(this.connection, this.restoreAutoCommit, this.statement, this.rs, null);
+        if (exception != null) {
+            throw new IllegalStateException("Failed to close the result stream", exception);
+        }
+    }
+
+    private static Exception close(Connection connection, boolean restoreAutoCommit, PreparedStatement statement, ResultSet rs, Exception failure) {
+        Exception exception = failure;
+        final AutoCloseable[] resources = {rs, statement};
+        for (final var resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                exception = suppress(exception, e);
+            }
+        }
+        try {
+            if (restoreAutoCommit) {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            exception = suppress(exception, e);
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            exception = suppress(exception, e);
+        }
+        return exception == failure ? null : exception;
+    }
+
+    private static Exception suppress(Exception exception, Exception e) {
+        if (exception == null) {
+            return e;
+        }
+        exception.addSuppressed(e);
+        return exception;
+    }
+
+    @FunctionalInterface
+    private interface MapperFactory<T> {
+        RowMapper<T> create(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.mapping;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds query parameters to a statement.
+ *
+ * @author DenaryDev
+ * @since 13:05 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+@FunctionalInterface
+public interface StatementBinder {
+    StatementBinder NONE = statement -> {
+    };
+
+    void bind(@NotNull final PreparedStatement statement) throws SQLException;
+}
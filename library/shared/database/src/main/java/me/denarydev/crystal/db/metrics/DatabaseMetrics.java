@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.metrics;
+
+import me.denarydev.crystal.db.connection.ConnectionFactory.ConnectionCallback;
+import me.denarydev.crystal.db.connection.ConnectionFactory.ConnectionFunction;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Metrics of a connection pool and the queries executed through it.
+ * <p>
+ * Connection metrics are recorded automatically. Query latency is recorded per label
+ * for functions wrapped with {@link #timed(String, ConnectionFunction)} or {@link #timedCallback(String, ConnectionCallback)}.
+ * <p>
+ * If a hold threshold is configured, the time each caller holds a connection is
+ * recorded per call site, and callers exceeding the threshold are logged with their stack.
+ *
+ * @author DenaryDev
+ * @since 17:55 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class DatabaseMetrics {
+    private static final String[] INTERNAL_PACKAGES = {"me.denarydev.crystal.db.", "java.", "javax.", "jdk.", "sun."};
+    private static final String OTHER_CALL_SITES = "<other>";
+    private static final String INTERNAL_CALL_SITE = "<internal> ";
+    private static final String[] QUERY_ENTRY_POINTS = {"me.denarydev.crystal.db.DatabaseManager", "me.denarydev.crystal.db.connection."};
+    private static final int MAX_CALL_SITES = 256;
+    private static final int MAX_STACK_DEPTH = 32;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final Logger logger;
+    private final long slowQueryThreshold;
+    private final long holdThreshold;
+
+    private final LatencyHistogram acquisition = new LatencyHistogram();
+    private final LatencyHistogram usage = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> queries = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> queryErrors = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder slowQueries = new LongAdder();
+    private final Map<String, LatencyHistogram> callSites = new ConcurrentHashMap<>();
+    private final LongAdder longHolds = new LongAdder();
+
+    private volatile IntSupplier activeConnections = () -> 0;
+    private volatile IntSupplier idleConnections = () -> 0;
+    private volatile IntSupplier pendingConnections = () -> 0;
+
+    /**
+     * @param logger             logger for slow queries
+     * @param slowQueryThreshold duration in milliseconds after which a query is logged as slow, 0 to disable
+     * @param holdThreshold      duration in milliseconds after which a connection holder is logged, 0 to disable hold tracking
+     */
+    @ApiStatus.Internal
+    public DatabaseMetrics(@NotNull Logger logger, long slowQueryThreshold, long holdThreshold) {
+        this.logger = logger;
+        this.slowQueryThreshold = TimeUnit.MILLISECONDS.toNanos(slowQueryThreshold);
+        this.holdThreshold = TimeUnit.MILLISECONDS.toNanos(holdThreshold);
+    }
+
+    /**
+     * Sets the sources of the connection pool state.
+     */
+    @ApiStatus.Internal
+    public void poolGauges(@NotNull IntSupplier active, @NotNull IntSupplier idle, @NotNull IntSupplier pending) {
+        this.activeConnections = active;
+        this.idleConnections = idle;
+        this.pendingConnections = pending;
+    }
+
+    @ApiStatus.Internal
+    public void recordAcquisition(long nanos) {
+        this.acquisition.record(nanos);
+    }
+
+    @ApiStatus.Internal
+    public void recordUsage(long nanos) {
+        this.usage.record(nanos);
+    }
+
+    @ApiStatus.Internal
+    public void recordTimeout() {
+        // the failed acquisition is counted as an error by the connection factory
+        this.timeouts.increment();
+    }
+
+    @ApiStatus.Internal
+    public void recordError() {
+        this.errors.increment();
+    }
+
+    /**
+     * Records the duration and outcome of a labeled query and logs it if it was slow.
+     *
+     * @param label  query label
+     * @param nanos  duration in nanoseconds
+     * @param failed whether the query failed
+     */
+    public void recordQuery(@NotNull String label, long nanos, boolean failed) {
+        this.queries.computeIfAbsent(label, l -> new LatencyHistogram()).record(nanos);
+        if (failed) {
+            this.queryErrors.computeIfAbsent(label, l -> new LongAdder()).increment();
+        }
+        if (this.slowQueryThreshold > 0 && nanos >= this.slowQueryThreshold) {
+            this.slowQueries.increment();
+            this.logger.warn("Slow SQL query '{}' took {} ms", label, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    /**
+     * Wraps the function, so its duration is recorded under the given label.
+     *
+     * @param label    query label, e.g. "load-profile"
+     * @param function the function to time
+     * @return timed function
+     */
+    public <T> @NotNull ConnectionFunction<T> timed(@NotNull String label, @NotNull ConnectionFunction<T> function) {
+        return connection -> {
+            final long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                final var result = function.apply(connection);
+                failed = false;
+                return result;
+            } finally {
+                recordQuery(label, System.nanoTime() - start, failed);
+            }
+        };
+    }
+
+    /**
+     * Wraps the callback, so its duration is recorded under the given label.
+     *
+     * @param label    query label, e.g. "save-profile"
+     * @param callback the callback to time
+     * @return timed callback
+     */
+    public @NotNull ConnectionCallback timedCallback(@NotNull String label, @NotNull ConnectionCallback callback) {
+        final var timed = timed(label, connection -> {
+            callback.accept(connection);
+            return null;
+        });
+        return timed::apply;
+    }
+
+    /**
+     * Wraps the function, so the time it holds the connection is recorded for the calling code.
+     * <p>
+     * The call site is the first stack frame outside of this library and the JDK, captured when this method is called,
+     * so queries chained with {@link java.util.concurrent.CompletableFuture} are attributed to the code chaining them.
+     * Queries issued by this library itself, e.g. cache loads, are labeled {@code <internal>} with the library frame.
+     * Returns the function itself if hold tracking is disabled or the function is already tracked.
+     *
+     * @param function the function to track
+     * @return tracked function
+     */
+    @ApiStatus.Internal
+    public <T> @NotNull ConnectionFunction<T> tracked(@NotNull ConnectionFunction<T> function) {
+        if (this.holdThreshold <= 0 || function instanceof TrackedFunction) {
+            return function;
+        }
+
+        final var stack = STACK_WALKER.walk(frames -> frames
+            .dropWhile(frame -> frame.getClassName().equals(DatabaseMetrics.class.getName()))
+            .limit(MAX_STACK_DEPTH)
+            .map(StackWalker.StackFrame::toStackTraceElement)
+            .toArray(StackTraceElement[]::new));
+        for (int i = 0; i < stack.length; i++) {
+            if (!matches(stack[i].getClassName(), INTERNAL_PACKAGES)) {
+                return new TrackedFunction<>(function, format(stack[i]), Arrays.copyOfRange(stack, i, stack.length));
+            }
+        }
+        // label the library code issuing the query rather than the method it went through
+        for (final var element : stack) {
+            if (!matches(element.getClassName(), QUERY_ENTRY_POINTS)) {
+                return new TrackedFunction<>(function, INTERNAL_CALL_SITE + format(element), stack);
+            }
+        }
+        return new TrackedFunction<>(function, OTHER_CALL_SITES, stack);
+    }
+
+    private static boolean matches(String className, String[] prefixes) {
+        for (final var prefix : prefixes) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordHold(String site, StackTraceElement[] stack, long nanos) {
+        var histogram = this.callSites.get(site);
+        if (histogram == null) {
+            // don't let generated or reflective callers grow the map without bounds
+            histogram = this.callSites.computeIfAbsent(this.callSites.size() < MAX_CALL_SITES ? site : OTHER_CALL_SITES,
+                s -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+
+        if (nanos >= this.holdThreshold) {
+            this.longHolds.increment();
+            final var caller = new Throwable("Connection holder stack");
+            caller.setStackTrace(stack);
+            this.logger.warn("Connection was held for {} ms by {}", TimeUnit.NANOSECONDS.toMillis(nanos), site, caller);
+        }
+    }
+
+    private static String format(StackTraceElement element) {
+        return element.getClassName() + '.' + element.getMethodName() + '(' + element.getFileName() + ':' + element.getLineNumber() + ')';
+    }
+
+    /**
+     * Returns the amount of connections in use.
+     */
+    public int activeConnections() {
+        return this.activeConnections.getAsInt();
+    }
+
+    /**
+     * Returns the amount of open connections which are not in use.
+     */
+    public int idleConnections() {
+        return this.idleConnections.getAsInt();
+    }
+
+    /**
+     * Returns the amount of threads waiting for a connection.
+     */
+    public int pendingConnections() {
+        return this.pendingConnections.getAsInt();
+    }
+
+    /**
+     * Returns the time spent waiting for a connection.
+     */
+    public @NotNull LatencyHistogram acquisition() {
+        return this.acquisition;
+    }
+
+    /**
+     * Returns the time connections were held by callers.
+     */
+    public @NotNull LatencyHistogram usage() {
+        return this.usage;
+    }
+
+    /**
+     * Returns latencies of labeled queries.
+     */
+    public @NotNull @Unmodifiable Map<String, LatencyHistogram> queries() {
+        return Collections.unmodifiableMap(this.queries);
+    }
+
+    /**
+     * Returns the amount of failed executions of a labeled query.
+     */
+    public long queryErrors(@NotNull String label) {
+        final var errors = this.queryErrors.get(label);
+        return errors == null ? 0 : errors.sum();
+    }
+
+    /**
+     * Returns the amount of failed queries and connection acquisitions.
+     */
+    public long errors() {
+        return this.errors.sum();
+    }
+
+    /**
+     * Returns the amount of connection acquisitions which timed out.
+     */
+    public long timeouts() {
+        return this.timeouts.sum();
+    }
+
+    /**
+     * Returns the amount of labeled queries which exceeded the slow query threshold.
+     */
+    public long slowQueries() {
+        return this.slowQueries.sum();
+    }
+
+    /**
+     * Returns the time connections were held, per call site.
+     * Empty if hold tracking is disabled.
+     */
+    public @NotNull @Unmodifiable Map<String, LatencyHistogram> callSites() {
+        return Collections.unmodifiableMap(this.callSites);
+    }
+
+    /**
+     * Returns the amount of times a connection was held longer than the hold threshold.
+     */
+    public long longHolds() {
+        return this.longHolds.sum();
+    }
+
+    /**
+     * Formats the call sites with the longest connection holds, one per line.
+     *
+     * @param limit maximum amount of call sites
+     * @return the report, ordered by the longest hold
+     */
+    public @NotNull String holdReport(int limit) {
+        final var builder = new StringBuilder("Slowest connection holders:");
+        this.callSites.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> entry) -> entry.getValue().max()).reversed())
+            .limit(limit)
+            .forEach(entry -> builder.append(System.lineSeparator()).append("  ")
+                .append(entry.getKey()).append(": ").append(entry.getValue()));
+        return builder.toString();
+    }
+
+    private final class TrackedFunction<T> implements ConnectionFunction<T> {
+        private final ConnectionFunction<T> function;
+        private final String site;
+        private final StackTraceElement[] stack;
+
+        private TrackedFunction(ConnectionFunction<T> function, String site, StackTraceElement[] stack) {
+            this.function = function;
+            this.site = site;
+            this.stack = stack;
+        }
+
+        @Override
+        public T apply(@NotNull Connection connection) throws SQLException {
+            final long start = System.nanoTime();
+            try {
+                return this.function.apply(connection);
+            } finally {
+                recordHold(this.site, this.stack, System.nanoTime() - start);
+            }
+        }
+    }
+}
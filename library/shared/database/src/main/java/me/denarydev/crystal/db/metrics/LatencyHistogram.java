@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.metrics;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations with exponential buckets.
+ * <p>
+ * Bucket {@code i} holds durations below 2<sup>i</sup> microseconds,
+ * so percentiles are accurate within a factor of two, which is enough to spot saturation.
+ *
+ * @author DenaryDev
+ * @since 17:40 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class LatencyHistogram {
+    private static final int BUCKETS = 32;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        final long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        final int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        this.buckets[bucket].increment();
+        this.count.increment();
+        this.total.add(nanos);
+        this.max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Returns the amount of recorded durations.
+     */
+    public long count() {
+        return this.count.sum();
+    }
+
+    /**
+     * Returns the mean duration in nanoseconds.
+     */
+    public long mean() {
+        final long count = count();
+        return count == 0 ? 0 : this.total.sum() / count;
+    }
+
+    /**
+     * Returns the longest recorded duration in nanoseconds.
+     */
+    public long max() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns the approximate duration in nanoseconds below which the given fraction of durations falls.
+     *
+     * @param percentile fraction between 0 and 1, e.g. 0.99
+     * @return upper bound of the bucket containing the percentile
+     */
+    public long percentile(double percentile) {
+        final long count = count();
+        if (count == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(TimeUnit.MICROSECONDS.toNanos(1L << i), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Clears all recorded durations.
+     */
+    public void reset() {
+        for (final var bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.count.reset();
+        this.total.reset();
+        this.max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.2fms, p50=%.2fms, p99=%.2fms, max=%.2fms", count(),
+            mean() / 1e6, percentile(0.5) / 1e6, percentile(0.99) / 1e6, max() / 1e6);
+    }
+}
@@ -0,0 +1,629 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.migration;
+
+import me.denarydev.crystal.db.DatabaseManager;
+import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.batch.BulkUpsert;
+import me.denarydev.crystal.db.concurrent.DatabaseThreadFactory;
+import me.denarydev.crystal.db.connection.ConnectionFactory;
+import me.denarydev.crystal.db.mapping.ResultStream;
+import me.denarydev.crystal.db.mapping.StatementBinder;
+import me.denarydev.crystal.db.settings.ConnectionSettings;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copies the data of every table from one database to another,
+ * e.g. when a plugin moves from SQLite or H2 to MySQL or PostgreSQL.
+ * <p>
+ * The target schema must already exist, for example created with {@link DatabaseManager#migrate(ClassLoader, String)}.
+ * Source tables without a table of the same name in the target are skipped, and only columns present
+ * in both tables are copied. Schema history tables ({@code <plugin>_schema_history}) are never copied. Values are converted to the column types of the target.
+ * <p>
+ * Each table is read with a {@link ResultStream} and written by several writers, each one inserting batches
+ * of rows in its own transaction. Rows of tables with a primary key are written with a {@link BulkUpsert},
+ * so an interrupted migration can simply be run again. Tables without a primary key are only copied
+ * into empty target tables.
+ * <p>
+ * Tables are copied after the tables they reference with foreign keys. On MySQL and MariaDB foreign key checks
+ * are disabled for the writers, so tables referencing themselves or each other can be copied as well.
+ * After a table is copied, the sequences of its generated columns are advanced past the copied values
+ * on PostgreSQL and H2, which don't do that for explicitly inserted values.
+ * <p>
+ * Both databases are opened by the migrator and closed when it completes, so the plugin must not use them at the same time.
+ *
+ * @author DenaryDev
+ * @since 17:10 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class DataMigrator {
+    private static final int FETCH_SIZE = 1000;
+    private static final long PROGRESS_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+    private static final List<Object[]> END = List.of();
+
+    private final ConnectionSettings sourceSettings;
+    private final ConnectionSettings targetSettings;
+    private final int tableParallelism;
+    private final int writersPerTable;
+    private final int batchSize;
+    private final Logger logger;
+
+    private final AtomicLong totalRows = new AtomicLong();
+    private final AtomicLong copiedRows = new AtomicLong();
+
+    /**
+     * Creates a migrator copying two tables at once with four writers per table.
+     *
+     * @param source settings of the database to copy from
+     * @param target settings of the database to copy to
+     */
+    public DataMigrator(@NotNull ConnectionSettings source, @NotNull ConnectionSettings target) {
+        this(source, target, 2, 4, 5000);
+    }
+
+    /**
+     * @param source           settings of the database to copy from
+     * @param target           settings of the database to copy to
+     * @param tableParallelism amount of tables copied at once
+     * @param writersPerTable  amount of writers inserting the rows of a table at once
+     * @param batchSize        amount of rows inserted in one transaction
+     */
+    public DataMigrator(@NotNull ConnectionSettings source, @NotNull ConnectionSettings target,
+                        int tableParallelism, int writersPerTable, int batchSize) {
+        if (tableParallelism < 1 || writersPerTable < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Parallelism and batch size must be positive");
+        }
+        this.sourceSettings = source;
+        this.targetSettings = target;
+        this.tableParallelism = tableParallelism;
+        this.writersPerTable = writersPerTable;
+        this.batchSize = batchSize;
+        this.logger = target.logger();
+    }
+
+    /**
+     * Copies all tables in a background thread.
+     *
+     * @return a future completed with the amount of copied rows per source table
+     */
+    public @NotNull CompletableFuture<Map<String, Long>> migrateAsync() {
+        final var future = new CompletableFuture<Map<String, Long>>();
+        new DatabaseThreadFactory(this.targetSettings.pluginName() + "-Data-Migration").newThread(() -> {
+            try {
+                future.complete(migrate());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }).start();
+        return future;
+    }
+
+    /**
+     * Copies all tables, blocking until all of them are copied.
+     *
+     * @return the amount of copied rows per source table
+     * @throws SQLException if a table could not be copied, other tables are copied nevertheless
+     */
+    public @NotNull Map<String, Long> migrate() throws SQLException {
+        final var source = new DatabaseManager();
+        final var target = new DatabaseManager();
+        source.initialize(this.sourceSettings);
+        try {
+            target.initialize(this.targetSettings);
+            try {
+                return migrate(source.connectionFactory(), target.connectionFactory());
+            } finally {
+                target.shutdown();
+            }
+        } finally {
+            source.shutdown();
+        }
+    }
+
+    private Map<String, Long> migrate(ConnectionFactory source, ConnectionFactory target) throws SQLException {
+        final var sourceTables = source.execute(DataMigrator::tables);
+        final var targetTables = target.execute(DataMigrator::tables);
+        var plans = new ArrayList<TablePlan>();
+        for (final var table : sourceTables.values()) {
+            if (table.toLowerCase(Locale.ROOT).endsWith(SchemaMigrator.HISTORY_TABLE_SUFFIX)) {
+                // the target records the migrations applied to its own schema
+                this.logger.info("Skipping schema history table {}", table);
+                continue;
+            }
+            final var targetTable = targetTables.get(table.toLowerCase(Locale.ROOT));
+            if (targetTable == null) {
+                this.logger.warn("Skipping table {}, it doesn't exist in the {} database", table, target.implementationType().friendlyName());
+                continue;
+            }
+            final var plan = plan(source, target, table, targetTable);
+            if (plan != null) {
+                plans.add(plan);
+            }
+        }
+
+        final var dependencies = dependencies(target, plans);
+        plans = order(plans, dependencies);
+
+        this.totalRows.set(plans.stream().mapToLong(TablePlan::rows).sum());
+        this.copiedRows.set(0);
+        this.logger.info("Migrating {} rows of {} tables from {} to {}", this.totalRows.get(), plans.size(),
+            source.implementationType().friendlyName(), target.implementationType().friendlyName());
+
+        final var name = this.targetSettings.pluginName() + "-Data-Migration";
+        final var tables = Executors.newFixedThreadPool(this.tableParallelism, new DatabaseThreadFactory(name + "-Reader"));
+        final var writers = Executors.newFixedThreadPool(this.tableParallelism * this.writersPerTable, new DatabaseThreadFactory(name + "-Writer"));
+        final var progress = Executors.newSingleThreadScheduledExecutor(new DatabaseThreadFactory(name + "-Progress"));
+        final long start = System.nanoTime();
+        progress.scheduleAtFixedRate(() -> logProgress(start), PROGRESS_INTERVAL, PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+        try {
+            final var futures = new LinkedHashMap<String, Future<Long>>();
+            final var submitted = new HashMap<String, Future<Long>>();
+            for (final var plan : plans) {
+                final var parents = new ArrayList<Future<Long>>();
+                for (final var parent : dependencies.get(key(plan))) {
+                    final var future = submitted.get(parent);
+                    if (future != null) {
+                        parents.add(future);
+                    } else if (!foreignKeyChecksDisabled(target)) {
+                        this.logger.warn("Table {} is part of a foreign key cycle, its rows may violate foreign keys while it is copied", plan.target());
+                    }
+                }
+                // tables are submitted in dependency order, so the parents are already running when this one waits for them
+                final var future = tables.submit(() -> {
+                    await(parents);
+                    return copy(source, target, plan, writers);
+                });
+                submitted.put(key(plan), future);
+                futures.put(plan.source(), future);
+            }
+
+            final var result = new LinkedHashMap<String, Long>();
+            SQLException failure = null;
+            for (final var entry : futures.entrySet()) {
+                try {
+                    result.put(entry.getKey(), entry.getValue().get());
+                } catch (Exception ex) {
+                    final var cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+                    this.logger.error("Failed to migrate table {}", entry.getKey(), cause);
+                    if (failure == null) {
+                        failure = new SQLException("Failed to migrate some tables");
+                    }
+                    failure.addSuppressed(cause);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+
+            logProgress(start);
+            return Collections.unmodifiableMap(result);
+        } finally {
+            progress.shutdownNow();
+            tables.shutdownNow();
+            writers.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the foreign keys of the target tables.
+     *
+     * @return the planned tables each planned table references, by lower case target name
+     */
+    private Map<String, Set<String>> dependencies(ConnectionFactory target, List<TablePlan> plans) throws SQLException {
+        final var planned = new HashSet<String>();
+        for (final var plan : plans) {
+            planned.add(key(plan));
+        }
+        final var dependencies = new HashMap<String, Set<String>>();
+        for (final var plan : plans) {
+            final var parents = target.execute(connection -> parents(connection, plan.target()));
+            if (parents.remove(key(plan)) && !foreignKeyChecksDisabled(target)) {
+                this.logger.warn("Table {} references itself, its rows may violate foreign keys while it is copied", plan.target());
+            }
+            parents.retainAll(planned);
+            dependencies.put(key(plan), parents);
+        }
+        return dependencies;
+    }
+
+    /**
+     * Sorts the tables so each one comes after the tables it references.
+     * Tables of a foreign key cycle are appended in their original order.
+     */
+    private static ArrayList<TablePlan> order(List<TablePlan> plans, Map<String, Set<String>> dependencies) {
+        final var remaining = new ArrayList<>(plans);
+        final var ordered = new ArrayList<TablePlan>(plans.size());
+        final var copied = new HashSet<String>();
+        while (!remaining.isEmpty()) {
+            final var ready = remaining.stream().filter(plan -> copied.containsAll(dependencies.get(key(plan)))).toList();
+            if (ready.isEmpty()) {
+                ordered.addAll(remaining);
+                break;
+            }
+            ordered.addAll(ready);
+            remaining.removeAll(ready);
+            ready.forEach(plan -> copied.add(key(plan)));
+        }
+        return ordered;
+    }
+
+    /**
+     * Waits for the referenced tables. A failed table is reported on its own, its dependents are copied anyway.
+     */
+    private static void await(List<Future<Long>> parents) throws InterruptedException {
+        for (final var parent : parents) {
+            try {
+                parent.get();
+            } catch (ExecutionException ignored) {
+            }
+        }
+    }
+
+    private static String key(TablePlan plan) {
+        return plan.target().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean foreignKeyChecksDisabled(ConnectionFactory target) {
+        final var type = target.implementationType();
+        return type == DatabaseType.MYSQL || type == DatabaseType.MARIADB;
+    }
+
+    /**
+     * Matches the columns of both tables and counts the rows to copy.
+     *
+     * @return the plan, or {@code null} if the table is skipped
+     */
+    private TablePlan plan(ConnectionFactory source, ConnectionFactory target, String sourceTable, String targetTable) throws SQLException {
+        final var sourceColumns = source.execute(connection -> columns(connection, sourceTable));
+        final var targetColumns = target.execute(connection -> columns(connection, targetTable));
+        final var primaryKey = target.execute(connection -> primaryKey(connection, targetTable));
+
+        // key columns first, that's the binding order of the upsert
+        final var columns = new ArrayList<Column>();
+        for (final var key : primaryKey) {
+            final var column = column(sourceColumns, targetColumns, key);
+            if (column == null) {
+                // the source can't provide the whole key, copy the rows as they are
+                columns.clear();
+                break;
+            }
+            columns.add(column);
+        }
+        final var keys = columns.stream().map(Column::target).toList();
+        final var values = new ArrayList<String>();
+        for (final var sourceColumn : sourceColumns.values()) {
+            final var column = column(sourceColumns, targetColumns, sourceColumn.name());
+            if (column != null && !keys.contains(column.target())) {
+                columns.add(column);
+                values.add(column.target());
+            }
+        }
+        if (columns.isEmpty()) {
+            this.logger.warn("Skipping table {}, it has no columns in common with the target table", sourceTable);
+            return null;
+        }
+
+        if (keys.isEmpty() && target.execute(connection -> count(connection, target, targetTable)) > 0) {
+            this.logger.warn("Skipping table {}, the target table has no primary key and already contains rows", sourceTable);
+            return null;
+        }
+        final var rows = source.execute(connection -> count(connection, source, sourceTable));
+        final var generated = targetColumns.values().stream()
+            .filter(type -> type.generated() && columns.stream().anyMatch(column -> column.target().equals(type.name())))
+            .map(ColumnType::name)
+            .toList();
+        return new TablePlan(sourceTable, targetTable, List.copyOf(columns), keys, values, generated, rows);
+    }
+
+    private long copy(ConnectionFactory source, ConnectionFactory target, TablePlan plan, ExecutorService writers) throws Exception {
+        final long start = System.nanoTime();
+        final var types = plan.columns().stream().mapToInt(Column::type).toArray();
+        final var writer = writer(target, plan, types);
+        final BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<>(this.writersPerTable * 2);
+        final var failure = new AtomicReference<Throwable>();
+
+        final var futures = new ArrayList<Future<?>>(this.writersPerTable);
+        for (int i = 0; i < this.writersPerTable; i++) {
+            futures.add(writers.submit(() -> {
+                try {
+                    List<Object[]> batch;
+                    while ((batch = queue.take()) != END) {
+                        final var rows = batch;
+                        // the upsert is idempotent, so retrying a deadlocked batch is safe
+                        target.transaction(connection -> {
+                            if (foreignKeyChecksDisabled(target)) {
+                                // rows may reference tables or rows which are not copied yet
+                                try (final var statement = connection.createStatement()) {
+                                    statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+                                }
+                            }
+                            return writer.write(connection, rows);
+                        });
+                        this.copiedRows.addAndGet(rows.size());
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                    // unblock the reader
+                    queue.clear();
+                }
+                return null;
+            }));
+        }
+
+        long rows = 0;
+        try {
+            final var select = new StringBuilder("SELECT ");
+            for (int i = 0; i < plan.columns().size(); i++) {
+                if (i > 0) {
+                    select.append(", ");
+                }
+                select.append('\'').append(plan.columns().get(i).source()).append('\'');
+            }
+            select.append(" FROM '").append(plan.source()).append('\'');
+
+            final var width = plan.columns().size();
+            try (final var stream = ResultStream.open(source, select.toString(), StatementBinder.NONE, rs -> {
+                final var row = new Object[width];
+                for (int i = 0; i < width; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                return row;
+            }, FETCH_SIZE)) {
+                var batch = new ArrayList<Object[]>(this.batchSize);
+                while (stream.hasNext() && failure.get() == null) {
+                    batch.add(stream.next());
+                    if (batch.size() == this.batchSize) {
+                        offer(queue, batch, failure);
+                        rows += batch.size();
+                        batch = new ArrayList<>(this.batchSize);
+                    }
+                }
+                if (!batch.isEmpty() && failure.get() == null) {
+                    offer(queue, batch, failure);
+                    rows += batch.size();
+                }
+            }
+        } finally {
+            for (int i = 0; i < this.writersPerTable; i++) {
+                offer(queue, END, failure);
+            }
+            for (final var future : futures) {
+                future.get();
+            }
+        }
+
+        if (failure.get() != null) {
+            if (failure.get() instanceof Exception ex) {
+                throw ex;
+            }
+            throw new CompletionException(failure.get());
+        }
+        target.execute(connection -> {
+            resetSequences(connection, target, plan);
+            return null;
+        });
+        this.logger.info("Migrated table {} ({} rows in {} ms)", plan.source(), rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return rows;
+    }
+
+    /**
+     * Hands a batch to the writers, waiting while they are busy unless one of them failed.
+     */
+    private void offer(BlockingQueue<List<Object[]>> queue, List<Object[]> batch, AtomicReference<Throwable> failure) throws InterruptedException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null && batch != END) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Advances the sequences of generated columns past the copied values,
+     * otherwise the next generated value collides with a copied row.
+     * MySQL, MariaDB and SQLite advance them when values are inserted explicitly.
+     */
+    private static void resetSequences(Connection connection, ConnectionFactory target, TablePlan plan) throws SQLException {
+        final var processor = target.statementProcessor();
+        for (final var column : plan.generated()) {
+            switch (target.implementationType()) {
+                case POSTGRESQL -> {
+                    try (final var statement = connection.prepareStatement(processor.apply(
+                        "SELECT setval(pg_get_serial_sequence(?, ?), MAX('" + column + "')) FROM '" + plan.target() + "'"))) {
+                        statement.setString(1, '"' + plan.target().replace("\"", "\"\"") + '"');
+                        statement.setString(2, column);
+                        statement.executeQuery().close();
+                    }
+                }
+                case H2 -> {
+                    try (final var statement = connection.createStatement()) {
+                        final long max;
+                        try (final var rs = statement.executeQuery(processor.apply("SELECT MAX('" + column + "') FROM '" + plan.target() + "'"))) {
+                            if (!rs.next() || rs.getObject(1) == null) {
+                                continue;
+                            }
+                            max = rs.getLong(1);
+                        }
+                        statement.execute(processor.apply("ALTER TABLE '" + plan.target() + "' ALTER COLUMN '" + column + "' RESTART WITH " + (max + 1)));
+                    }
+                }
+                default -> {
+                    return;
+                }
+            }
+        }
+    }
+
+    private BatchWriter writer(ConnectionFactory target, TablePlan plan, int[] types) {
+        if (!plan.keys().isEmpty()) {
+            final var upsert = new BulkUpsert<Object[]>(target, plan.target(), plan.keys(), plan.values(), (statement, offset, row) -> {
+                for (int i = 0; i < row.length; i++) {
+                    bind(statement, offset + i + 1, row[i], types[i]);
+                }
+            });
+            return upsert::execute;
+        }
+
+        final var columns = plan.columns().stream().map(column -> "'" + column.target() + "'").toList();
+        final var sql = target.statementProcessor().apply("INSERT INTO '" + plan.target() + "' (" + String.join(", ", columns)
+            + ") VALUES (" + "?, ".repeat(columns.size() - 1) + "?)");
+        return (connection, rows) -> {
+            try (final var statement = connection.prepareStatement(sql)) {
+                for (final var row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        bind(statement, i + 1, row[i], types[i]);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            return rows.size();
+        };
+    }
+
+    private static void bind(PreparedStatement statement, int index, Object value, int type) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, type);
+        } else {
+            // let the driver convert loosely typed flatfile values, e.g. integers into booleans
+            statement.setObject(index, value, type);
+        }
+    }
+
+    private void logProgress(long start) {
+        final var copied = this.copiedRows.get();
+        final var seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+        this.logger.info("Migrated {}/{} rows ({} rows/s)", copied, this.totalRows.get(), copied / seconds);
+    }
+
+    /**
+     * Lists the tables of the current schema.
+     *
+     * @return table names by their lower case name
+     */
+    private static Map<String, String> tables(Connection connection) throws SQLException {
+        final var tables = new LinkedHashMap<String, String>();
+        final var metadata = connection.getMetaData();
+        try (final var rs = metadata.getTables(connection.getCatalog(), connection.getSchema(), "%", new String[]{"TABLE", "BASE TABLE"})) {
+            while (rs.next()) {
+                final var name = rs.getString("TABLE_NAME");
+                if (!name.startsWith("sqlite_")) {
+                    tables.put(name.toLowerCase(Locale.ROOT), name);
+                }
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * @return column types by their lower case name, in table order
+     */
+    private static Map<String, ColumnType> columns(Connection connection, String table) throws SQLException {
+        final var columns = new LinkedHashMap<String, ColumnType>();
+        final var metadata = connection.getMetaData();
+        try (final var rs = metadata.getColumns(connection.getCatalog(), connection.getSchema(), escape(metadata, table), "%")) {
+            while (rs.next()) {
+                final var name = rs.getString("COLUMN_NAME");
+                final var generated = "YES".equalsIgnoreCase(rs.getString("IS_AUTOINCREMENT"));
+                columns.put(name.toLowerCase(Locale.ROOT), new ColumnType(name, rs.getInt("DATA_TYPE"), generated));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Escapes the wildcards of a name used as a metadata search pattern, so {@code player_data}
+     * doesn't match {@code playerXdata} as well.
+     */
+    private static String escape(DatabaseMetaData metadata, String name) throws SQLException {
+        final var escape = metadata.getSearchStringEscape();
+        if (escape == null || escape.isEmpty()) {
+            return name;
+        }
+        return name.replace(escape, escape + escape).replace("_", escape + "_").replace("%", escape + "%");
+    }
+
+    private static List<String> primaryKey(Connection connection, String table) throws SQLException {
+        final var keys = new HashMap<Integer, String>();
+        try (final var rs = connection.getMetaData().getPrimaryKeys(connection.getCatalog(), connection.getSchema(), table)) {
+            while (rs.next()) {
+                keys.put(rs.getInt("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+            }
+        }
+        final var result = new ArrayList<String>(keys.size());
+        keys.keySet().stream().sorted().forEach(seq -> result.add(keys.get(seq)));
+        return result;
+    }
+
+    /**
+     * @return lower case names of the tables the table references with foreign keys
+     */
+    private static Set<String> parents(Connection connection, String table) throws SQLException {
+        final var parents = new HashSet<String>();
+        try (final var rs = connection.getMetaData().getImportedKeys(connection.getCatalog(), connection.getSchema(), table)) {
+            while (rs.next()) {
+                parents.add(rs.getString("PKTABLE_NAME").toLowerCase(Locale.ROOT));
+            }
+        }
+        return parents;
+    }
+
+    private static Column column(Map<String, ColumnType> sourceColumns, Map<String, ColumnType> targetColumns, String name) {
+        final var key = name.toLowerCase(Locale.ROOT);
+        final var source = sourceColumns.get(key);
+        final var target = targetColumns.get(key);
+        return source == null || target == null ? null : new Column(source.name(), target.name(), target.type());
+    }
+
+    private static long count(Connection connection, ConnectionFactory factory, String table) throws SQLException {
+        try (final var statement = connection.createStatement();
+             final var rs = statement.executeQuery(factory.statementProcessor().apply("SELECT COUNT(*) FROM '" + table + "'"))) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private interface BatchWriter {
+        int write(Connection connection, List<Object[]> rows) throws SQLException;
+    }
+
+    private record ColumnType(String name, int type, boolean generated) {
+    }
+
+    private record Column(String source, String target, int type) {
+    }
+
+    private record TablePlan(String source, String target, List<Column> columns, List<String> keys, List<String> values,
+                             List<String> generated, long rows) {
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.migration;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.regex.Pattern;
+
+/**
+ * Versioned migration script, named {@code V<version>__<description>.sql},
+ * for example {@code V1__create_tables.sql} or {@code V1.2__add_index.sql}.
+ *
+ * @param version     dot separated numeric version, compared numerically, so {@code 1.0} equals {@code 1}
+ * @param description human-readable description
+ * @param resource    classpath resource of the script
+ * @param checksum    CRC32 checksum of the script with normalized line endings
+ * @author DenaryDev
+ * @since 11:45 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public record Migration(@NotNull String version, @NotNull String description, @NotNull String resource, long checksum) implements Comparable<Migration> {
+    private static final Pattern NAME = Pattern.compile("V(\\d+(?:[._]\\d+)*)__(.+)\\.sql");
+
+    /**
+     * Parses the version and description from a script file name.
+     *
+     * @param fileName script file name
+     * @return {@code {version, description}}, or {@code null} if the name is not a migration script
+     */
+    static String[] parseName(@NotNull String fileName) {
+        final var matcher = NAME.matcher(fileName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new String[]{matcher.group(1).replace('_', '.'), matcher.group(2).replace('_', ' ')};
+    }
+
+    @Override
+    public int compareTo(@NotNull Migration other) {
+        return compareVersions(this.version, other.version);
+    }
+
+    static int compareVersions(String first, String second) {
+        final var a = first.split("\\.");
+        final var b = second.split("\\.");
+        for (int i = 0; i < Math.max(a.length, b.length); i++) {
+            final long x = i < a.length ? Long.parseLong(a[i]) : 0;
+            final long y = i < b.length ? Long.parseLong(b[i]) : 0;
+            if (x != y) {
+                return Long.compare(x, y);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.migration;
+
+import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.connection.ConnectionFactory;
+import me.denarydev.crystal.db.util.SchemaReader;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Applies versioned migration scripts from the classpath.
+ * <p>
+ * Applied versions and script checksums are recorded in a history table.
+ * Only pending scripts are executed, each one in its own transaction together with its history entry.
+ * When the schema is current, a migration only takes the lock, creates the history table if it is missing
+ * and reads it, no script is executed.
+ * Scripts are rewritten with the {@link ConnectionFactory#statementProcessor() statement processor},
+ * so one script written with portable {@code 'identifier'} quotes works for every database.
+ * <p>
+ * Note that MySQL and MariaDB commit DDL statements implicitly, so a failed script may be applied partially there.
+ * <p>
+ * On MySQL, MariaDB and PostgreSQL the migration holds a named database lock, so when several servers sharing
+ * one database start at the same time, only one of them applies the pending scripts and the others wait for it.
+ *
+ * @author DenaryDev
+ * @since 11:45 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class SchemaMigrator {
+    private static final int BATCH_SIZE = 100;
+    private static final long LOCK_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+    private static final long LOCK_POLL_INTERVAL = 500;
+
+    /**
+     * Suffix of history table names used by {@link me.denarydev.crystal.db.DatabaseManager#migrate(ClassLoader, String)}.
+     */
+    @ApiStatus.Internal
+    public static final String HISTORY_TABLE_SUFFIX = "_schema_history";
+
+    private final ConnectionFactory connectionFactory;
+    private final Logger logger;
+    private final String historyTable;
+
+    /**
+     * @param connectionFactory initialized connection factory
+     * @param logger            logger for applied migrations
+     * @param historyTable      name of the table recording applied migrations
+     */
+    public SchemaMigrator(@NotNull ConnectionFactory connectionFactory, @NotNull Logger logger, @NotNull String historyTable) {
+        this.connectionFactory = connectionFactory;
+        this.logger = logger;
+        this.historyTable = historyTable;
+    }
+
+    /**
+     * Applies pending migrations found in the given classpath directory.
+     *
+     * @param classLoader class loader to look up scripts with
+     * @param location    classpath directory of the scripts, e.g. {@code db/migration}
+     * @return amount of applied migrations
+     * @throws SQLException if a migration fails or an applied script was modified
+     * @throws IOException  if scripts cannot be read
+     */
+    public int migrate(@NotNull ClassLoader classLoader, @NotNull String location) throws SQLException, IOException {
+        final var migrations = discover(classLoader, location);
+        return this.connectionFactory.execute(connection -> migrate(connection, classLoader, migrations));
+    }
+
+    private int migrate(Connection connection, ClassLoader classLoader, List<Migration> migrations) throws SQLException {
+        lock(connection);
+        try {
+            return migrateLocked(connection, classLoader, migrations);
+        } finally {
+            unlock(connection);
+        }
+    }
+
+    private int migrateLocked(Connection connection, ClassLoader classLoader, List<Migration> migrations) throws SQLException {
+        // the history is read only after the lock is taken, so scripts applied by another server are seen
+        final var processor = this.connectionFactory.statementProcessor();
+        try (final var statement = connection.createStatement()) {
+            statement.execute(processor.apply("CREATE TABLE IF NOT EXISTS '" + this.historyTable + "' ("
+                + "'version' VARCHAR(50) NOT NULL PRIMARY KEY, "
+                + "'description' VARCHAR(200) NOT NULL, "
+                + "'checksum' BIGINT NOT NULL, "
+                + "'installed_on' BIGINT NOT NULL, "
+                + "'execution_time' BIGINT NOT NULL)"));
+        }
+
+        // versions are compared numerically, so V1.0 matches an applied V1
+        final Map<String, Long> applied = new TreeMap<>(Migration::compareVersions);
+        try (final var statement = connection.createStatement();
+             final var rs = statement.executeQuery(processor.apply("SELECT 'version', 'checksum' FROM '" + this.historyTable + "'"))) {
+            while (rs.next()) {
+                applied.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+
+        final var pending = new ArrayList<Migration>();
+        for (final var migration : migrations) {
+            final var checksum = applied.get(migration.version());
+            if (checksum == null) {
+                pending.add(migration);
+            } else if (checksum != migration.checksum()) {
+                throw new SQLException("Migration " + migration.version() + " (" + migration.description() + ") was modified after it was applied");
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        final var insert = processor.apply("INSERT INTO '" + this.historyTable + "' ('version', 'description', 'checksum', 'installed_on', 'execution_time') VALUES (?, ?, ?, ?, ?)");
+        for (final var migration : pending) {
+            final var start = System.nanoTime();
+            // flatfile writers may already run this inside a group transaction
+            final var autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            try (final var is = open(classLoader, migration.resource())) {
+                SchemaReader.execute(connection, is, this.connectionFactory.implementationType(), BATCH_SIZE, processor);
+                final var elapsed = (System.nanoTime() - start) / 1_000_000;
+                try (final var statement = connection.prepareStatement(insert)) {
+                    statement.setString(1, migration.version());
+                    statement.setString(2, migration.description());
+                    statement.setLong(3, migration.checksum());
+                    statement.setLong(4, System.currentTimeMillis());
+                    statement.setLong(5, elapsed);
+                    statement.executeUpdate();
+                }
+                if (autoCommit) {
+                    connection.commit();
+                }
+                this.logger.info("Applied migration {} ({}) in {} ms", migration.version(), migration.description(), elapsed);
+            } catch (SQLException | IOException | RuntimeException ex) {
+                if (autoCommit) {
+                    connection.rollback();
+                }
+                throw new SQLException("Failed to apply migration " + migration.version() + " (" + migration.description() + ")", ex);
+            } finally {
+                if (autoCommit) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        }
+        return pending.size();
+    }
+
+    /**
+     * Takes the migration lock of the history table, waiting for other servers migrating the same database.
+     * Flatfile databases are used by a single server and need no lock.
+     */
+    private void lock(Connection connection) throws SQLException {
+        switch (this.connectionFactory.implementationType()) {
+            case MYSQL, MARIADB -> {
+                try (final var statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+                    statement.setString(1, lockName());
+                    statement.setLong(2, TimeUnit.MILLISECONDS.toSeconds(LOCK_TIMEOUT));
+                    try (final var rs = statement.executeQuery()) {
+                        if (!rs.next() || rs.getInt(1) != 1) {
+                            throw new SQLException("Timed out waiting for the migration lock " + lockName());
+                        }
+                    }
+                }
+            }
+            case POSTGRESQL -> {
+                // poll instead of pg_advisory_lock, which waits forever
+                final long deadline = System.currentTimeMillis() + LOCK_TIMEOUT;
+                try (final var statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                    statement.setLong(1, lockKey());
+                    while (true) {
+                        try (final var rs = statement.executeQuery()) {
+                            if (rs.next() && rs.getBoolean(1)) {
+                                return;
+                            }
+                        }
+                        if (System.currentTimeMillis() >= deadline) {
+                            throw new SQLException("Timed out waiting for the migration lock " + lockName());
+                        }
+                        try {
+                            Thread.sleep(LOCK_POLL_INTERVAL);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new SQLException("Interrupted while waiting for the migration lock " + lockName(), e);
+                        }
+                    }
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void unlock(Connection connection) {
+        final var sql = switch (this.connectionFactory.implementationType()) {
+            case MYSQL, MARIADB -> "SELECT RELEASE_LOCK(?)";
+            case POSTGRESQL -> "SELECT pg_advisory_unlock(?)";
+            default -> null;
+        };
+        if (sql == null) {
+            return;
+        }
+        try (final var statement = connection.prepareStatement(sql)) {
+            if (this.connectionFactory.implementationType() == DatabaseType.POSTGRESQL) {
+                statement.setLong(1, lockKey());
+            } else {
+                statement.setString(1, lockName());
+            }
+            statement.executeQuery().close();
+        } catch (SQLException ex) {
+            // don't hide the migration result, the lock is released with the session at the latest
+            this.logger.warn("Failed to release the migration lock {}", lockName(), ex);
+        }
+    }
+
+    /**
+     * MySQL lock names are server wide and limited to 64 characters.
+     */
+    private String lockName() {
+        final var name = "migration:" + this.historyTable;
+        return name.length() > 64 ? name.substring(0, 64) : name;
+    }
+
+    /**
+     * PostgreSQL advisory locks are identified by a number.
+     */
+    private long lockKey() {
+        final var crc = new CRC32();
+        crc.update(lockName().getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Finds migration scripts in the given classpath directory, sorted by version.
+     *
+     * @param classLoader class loader to look up scripts with
+     * @param location    classpath directory of the scripts
+     * @return sorted migrations
+     * @throws IOException if scripts cannot be read
+     */
+    public static @NotNull List<Migration> discover(@NotNull ClassLoader classLoader, @NotNull String location) throws IOException {
+        final var directory = location.endsWith("/") ? location.substring(0, location.length() - 1) : location;
+        final var names = new ArrayList<String>();
+        final var resources = classLoader.getResources(directory);
+        while (resources.hasMoreElements()) {
+            list(resources.nextElement(), directory, names);
+        }
+
+        // sorted numerically, equal versions such as V1 and V1.0 are duplicates
+        final Map<String, Migration> migrations = new TreeMap<>(Migration::compareVersions);
+        for (final var name : names) {
+            final var parsed = Migration.parseName(name);
+            if (parsed == null) {
+                continue;
+            }
+            final var resource = directory + "/" + name;
+            final var migration = new Migration(parsed[0], parsed[1], resource, checksum(classLoader, resource));
+            final var previous = migrations.put(migration.version(), migration);
+            if (previous != null && !previous.resource().equals(resource)) {
+                throw new IOException("Duplicate migration version " + migration.version() + ": " + previous.resource() + ", " + resource);
+            }
+        }
+        return new ArrayList<>(migrations.values());
+    }
+
+    private static void list(URL url, String directory, List<String> names) throws IOException {
+        switch (url.getProtocol()) {
+            case "file" -> {
+                try (final var files = Files.list(Path.of(url.toURI()))) {
+                    files.filter(Files::isRegularFile).forEach(file -> names.add(file.getFileName().toString()));
+                } catch (URISyntaxException e) {
+                    throw new IOException("Invalid migration location " + url, e);
+                }
+            }
+            case "jar" -> {
+                final var connection = (JarURLConnection) url.openConnection();
+                connection.setUseCaches(false);
+                try (final var jar = connection.getJarFile()) {
+                    final var prefix = directory + "/";
+                    final var entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        final var name = entries.nextElement().getName();
+                        if (name.startsWith(prefix) && name.indexOf('/', prefix.length()) < 0 && name.length() > prefix.length()) {
+                            names.add(name.substring(prefix.length()));
+                        }
+                    }
+                }
+            }
+            default -> throw new IOException("Unsupported migration location " + url);
+        }
+    }
+
+    /**
+     * Computes the checksum with line endings normalized to {@code \n}, so a script checked out
+     * with other line endings is not reported as modified.
+     */
+    private static long checksum(ClassLoader classLoader, String resource) throws IOException {
+        final var crc = new CRC32();
+        try (final var is = open(classLoader, resource)) {
+            final var buffer = new byte[8192];
+            boolean carriageReturn = false;
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                int length = 0;
+                for (int i = 0; i < read; i++) {
+                    final byte b = buffer[i];
+                    if (b == '\n' && carriageReturn) {
+                        // second half of \r\n, already written as \n
+                        carriageReturn = false;
+                        continue;
+                    }
+                    carriageReturn = b == '\r';
+                    buffer[length++] = carriageReturn ? (byte) '\n' : b;
+                }
+                crc.update(buffer, 0, length);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static InputStream open(ClassLoader classLoader, String resource) throws IOException {
+        final var is = classLoader.getResourceAsStream(resource);
+        if (is == null) {
+            throw new IOException("Migration script " + resource + " not found");
+        }
+        return is;
+    }
+}
@@ -47,4 +47,56 @@ public sealed interface ConnectionSettings permits FlatfileConnectionSettings, H
      */
     @NotNull
     Logger logger();
+
+    /**
+     * The maximum amount of asynchronous queries waiting for execution.
+     * <p>
+     * When the queue is full, new asynchronous queries are rejected.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int queueCapacity() {
+        return 1024;
+    }
+
+    /**
+     * The amount of milliseconds after which a labeled query is logged as slow. Set to 0 to disable.
+     *
+     * @see me.denarydev.crystal.db.metrics.DatabaseMetrics#timed(String, me.denarydev.crystal.db.connection.ConnectionFactory.ConnectionFunction)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int slowQueryThreshold() {
+        return 1000;
+    }
+
+    /**
+     * The amount of milliseconds a caller may hold a connection before it is logged with its stack. Set to 0 to disable.
+     * <p>
+     * When enabled, hold times are also recorded per call site, which costs a stack walk per query.
+     * For MySQL, MariaDB and PostgreSQL, Hikari leak detection is enabled with the same threshold, but at least 2 seconds.
+     *
+     * @see me.denarydev.crystal.db.metrics.DatabaseMetrics#holdReport(int)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int holdThreshold() {
+        return 0;
+    }
+
+    /**
+     * The amount of milliseconds we wait for queued asynchronous queries on shutdown.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int shutdownTimeout() {
+        return 30000;
+    }
+
+    /**
+     * The maximum amount of worker threads shared by all datasources of a
+     * {@link me.denarydev.crystal.db.DatabaseManager}, limiting how many queries run at once.
+     * <p>
+     * Only the value of the primary datasource is used. Flatfile writers and virtual threads are not counted.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int workerBudget() {
+        return 32;
+    }
 }
@@ -11,6 +11,7 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.file.Path;
+import java.util.Map;
 
 /**
  * This class is used to configure connections to local databases.
@@ -27,4 +28,180 @@ public non-sealed interface FlatfileConnectionSettings extends ConnectionSetting
      */
     @NotNull
     Path dataFolder();
+
+    /**
+     * The maximum amount of queries committed in one transaction by the writer thread.
+     * <p>
+     * Set to 1 to commit every query separately.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int writerBatchSize() {
+        return 256;
+    }
+
+    /**
+     * The maximum amount of prepared statements cached per connection. Set to 0 to disable.
+     * <p>
+     * Cached statements are reused when the same sql is prepared again, skipping its compilation.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int statementCacheSize() {
+        return 64;
+    }
+
+    /**
+     * SQLite journal mode.
+     * <p>
+     * WAL allows readers to work alongside the writer and is much faster for frequent writes.
+     *
+     * @see <a href="https://www.sqlite.org/pragma.html#pragma_journal_mode">journal_mode</a>
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    @NotNull
+    default String sqliteJournalMode() {
+        return "WAL";
+    }
+
+    /**
+     * SQLite synchronous mode.
+     * <p>
+     * NORMAL is safe from corruption in WAL mode, but the last transactions may be lost on power loss.
+     *
+     * @see <a href="https://www.sqlite.org/pragma.html#pragma_synchronous">synchronous</a>
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    @NotNull
+    default String sqliteSynchronous() {
+        return "NORMAL";
+    }
+
+    /**
+     * The maximum amount of bytes of the SQLite database file to memory-map. Set to 0 to disable.
+     *
+     * @see <a href="https://www.sqlite.org/pragma.html#pragma_mmap_size">mmap_size</a>
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default long sqliteMmapSize() {
+        return 134217728L;
+    }
+
+    /**
+     * SQLite page cache size. Positive values are pages, negative values are kibibytes.
+     *
+     * @see <a href="https://www.sqlite.org/pragma.html#pragma_cache_size">cache_size</a>
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int sqliteCacheSize() {
+        return -16000;
+    }
+
+    /**
+     * Where SQLite stores temporary tables and indices.
+     *
+     * @see <a href="https://www.sqlite.org/pragma.html#pragma_temp_store">temp_store</a>
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    @NotNull
+    default String sqliteTempStore() {
+        return "MEMORY";
+    }
+
+    /**
+     * The amount of milliseconds SQLite waits for a locked database before failing.
+     * Read-only queries wait as long for a free {@link #sqliteReadConnections() read connection}.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int sqliteBusyTimeout() {
+        return 5000;
+    }
+
+    /**
+     * The amount of read-only SQLite connections used alongside the writer connection. Set to 0 to disable.
+     * <p>
+     * Only used when {@link #sqliteJournalMode()} is WAL, since other journal modes block readers while writing.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int sqliteReadConnections() {
+        return 0;
+    }
+
+    /**
+     * The interval in milliseconds between WAL checkpoints. Set to 0 to disable.
+     * <p>
+     * Only used when {@link #sqliteJournalMode()} is WAL.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int sqliteCheckpointInterval() {
+        return 300000;
+    }
+
+    /**
+     * H2 page cache size in kibibytes.
+     *
+     * @see <a href="https://h2database.com/html/commands.html#set_cache_size">CACHE_SIZE</a>
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int h2CacheSize() {
+        return 32768;
+    }
+
+    /**
+     * The maximum amount of milliseconds H2 keeps committed changes in memory before writing them to disk.
+     *
+     * @see <a href="https://h2database.com/html/commands.html#set_write_delay">WRITE_DELAY</a>
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int h2WriteDelay() {
+        return 500;
+    }
+
+    /**
+     * The amount of milliseconds H2 waits for a locked table before failing.
+     *
+     * @see <a href="https://h2database.com/html/commands.html#set_lock_timeout">LOCK_TIMEOUT</a>
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int h2LockTimeout() {
+        return 10000;
+    }
+
+    /**
+     * Whether H2 should compress the database file. Saves disk space, but costs CPU time.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default boolean h2Compress() {
+        return false;
+    }
+
+    /**
+     * Other H2 url options you may want to set, like MVStore options.
+     * <pre>
+     * <strong>AUTO_COMPACT_FILL_RATE = 90
+     * RETENTION_TIME = 0</strong>
+     * ...and any other H2 url options</pre>
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    @NotNull
+    default Map<String, String> h2Options() {
+        return Map.of();
+    }
+
+    /**
+     * Whether the H2 database should be kept in memory.
+     * <p>
+     * The content is restored from a snapshot file on startup and written back
+     * to it periodically and on shutdown. Changes after the last snapshot are lost on crash.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default boolean h2InMemory() {
+        return false;
+    }
+
+    /**
+     * The interval in milliseconds between snapshots of the in-memory H2 database. Set to 0 to only snapshot on shutdown.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int h2SnapshotInterval() {
+        return 300000;
+    }
 }
@@ -12,6 +12,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -92,6 +93,109 @@ public non-sealed interface HikariConnectionSettings extends ConnectionSettings
         return 5000;
     }
 
+    /**
+     * Whether asynchronous queries should be executed in virtual threads.
+     * <p>
+     * Requires Java 21 or newer, otherwise platform threads are used.
+     * Amount of simultaneous queries is still limited by {@link #maxPoolSize()},
+     * waiting queries are parked instead of occupying a platform thread.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default boolean virtualThreads() {
+        return false;
+    }
+
+    /**
+     * The amount of consecutive failures to connect to the database after which further attempts fail fast
+     * instead of waiting for {@link #connectionTimeout()}. Set to 0 to disable.
+     * <p>
+     * Timeouts waiting for a free connection while the pool is busy are not counted as failures.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int circuitBreakerThreshold() {
+        return 5;
+    }
+
+    /**
+     * The amount of milliseconds attempts fail fast before a single attempt probes the database again.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int circuitBreakerCooldown() {
+        return 10000;
+    }
+
+    /**
+     * Whether {@link #minimumIdle()} connections should be opened in parallel during initialization,
+     * so the first queries after a restart don't pay for connection setup.
+     * <p>
+     * Each connection is validated and prepares the {@link #warmUpStatements() warm-up statements}.
+     * Initialization blocks until warm-up is finished or {@link #connectionTimeout()} elapses.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default boolean warmUp() {
+        return false;
+    }
+
+    /**
+     * Frequently used statements prepared on every connection during warm-up.
+     * <p>
+     * With server-side prepared statement caching (enabled by default for MySQL and MariaDB)
+     * the first execution of these statements skips parsing.
+     * <p>
+     * On PostgreSQL this does nothing, the driver prepares a statement on the server only after
+     * it was executed {@code prepareThreshold} times, and the warm-up never executes it.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    @NotNull
+    default List<String> warmUpStatements() {
+        return List.of();
+    }
+
+    /**
+     * Addresses of read replicas, as {@code host} or {@code host:port}.
+     * <p>
+     * Each replica gets its own pool of {@link #maxPoolSize()} connections using the same
+     * database, credentials and properties as the primary. Read-only queries are sent to replicas,
+     * everything else to the primary.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    @NotNull
+    default List<String> replicas() {
+        return List.of();
+    }
+
+    /**
+     * How read-only queries are distributed between replicas.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    @NotNull
+    default ReplicaRouting replicaRouting() {
+        return ReplicaRouting.ROUND_ROBIN;
+    }
+
+    /**
+     * The amount of milliseconds a replica is skipped after it failed to provide a connection.
+     * Reads fall back to the primary while no replica is available.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    default int replicaRetryDelay() {
+        return 30000;
+    }
+
+    /**
+     * Overrides the JDBC URL of the primary and the replicas, e.g. to connect through another driver.
+     * The driver is then looked up by the URL, and {@link #properties()} are passed to it as they are.
+     *
+     * @param address the address of the primary or a replica
+     * @param port    the port, or the default port of the database type
+     * @return the JDBC URL, or {@code null} to use the driver of the database type
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    @Nullable
+    default String jdbcUrl(@NotNull String address, @NotNull String port) {
+        return null;
+    }
+
     /**
      * Other properties you may want to set.
      * <p>
@@ -108,4 +212,19 @@ public non-sealed interface HikariConnectionSettings extends ConnectionSettings
         map.put("characterEncoding", "utf8");
         return map;
     }
+
+    /**
+     * Strategy for choosing a read replica.
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    enum ReplicaRouting {
+        /**
+         * Replicas are used in turn.
+         */
+        ROUND_ROBIN,
+        /**
+         * The replica with the fewest queries in progress is used.
+         */
+        LEAST_PENDING
+    }
 }
@@ -7,15 +7,21 @@
  */
 package me.denarydev.crystal.db.util;
 
+import me.denarydev.crystal.db.DatabaseType;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.util.LinkedList;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Methods for getting schemas from .sql files
@@ -25,37 +31,110 @@ import java.util.List;
  */
 @ApiStatus.AvailableSince("2.1.0")
 public final class SchemaReader {
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
     private SchemaReader() {
     }
 
     public static List<String> getStatements(final InputStream is) throws IOException {
-        final var queries = new LinkedList<String>();
-
-        try (final var reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            var builder = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith("--") || line.startsWith("#")) {
-                    continue;
-                }
+        final var queries = new ArrayList<String>();
+
+        try (final var statements = statements(is)) {
+            while (statements.hasNext()) {
+                queries.add(statements.next());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return queries;
+    }
 
-                builder.append(line);
+    /**
+     * Lazily reads statements from the stream. The iterator must be closed after use.
+     *
+     * @param is script stream
+     * @return statement iterator
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public static @NotNull StatementIterator statements(final @NotNull InputStream is) {
+        return new StatementIterator(new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Lazily reads statements from the stream using string escaping and quoting rules of the database.
+     * The iterator must be closed after use.
+     *
+     * @param is   script stream
+     * @param type database the script is written for
+     * @return statement iterator
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public static @NotNull StatementIterator statements(final @NotNull InputStream is, final @NotNull DatabaseType type) {
+        final var backslashEscapes = type == DatabaseType.MYSQL || type == DatabaseType.MARIADB;
+        final var dollarQuotes = type == DatabaseType.POSTGRESQL;
+        return new StatementIterator(new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8)), backslashEscapes, dollarQuotes);
+    }
 
-                // check for end of declaration
-                if (line.endsWith(";")) {
-                    builder.deleteCharAt(builder.length() - 1);
+    /**
+     * Executes a script in batches of {@value DEFAULT_BATCH_SIZE} statements.
+     *
+     * @see #execute(Connection, InputStream, DatabaseType, int)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public static int execute(final @NotNull Connection connection, final @NotNull InputStream is, final @NotNull DatabaseType type) throws SQLException, IOException {
+        return execute(connection, is, type, DEFAULT_BATCH_SIZE);
+    }
 
-                    final var result = builder.toString().trim();
-                    if (!result.isEmpty()) {
-                        queries.add(result);
-                    }
+    /**
+     * Executes a script without loading it into memory.
+     * <p>
+     * Statements are sent in batches, so the script must not contain queries returning result sets.
+     * Transaction boundaries are left to the caller.
+     *
+     * @param connection connection to execute the script on
+     * @param is         script stream
+     * @param type       database the script is written for
+     * @param batchSize  amount of statements sent in one round-trip
+     * @return amount of executed statements
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public static int execute(final @NotNull Connection connection, final @NotNull InputStream is, final @NotNull DatabaseType type, final int batchSize) throws SQLException, IOException {
+        return execute(connection, is, type, batchSize, Function.identity());
+    }
 
-                    // reset
-                    builder = new StringBuilder();
+    /**
+     * Executes a script without loading it into memory, rewriting every statement with the given processor.
+     *
+     * @param connection connection to execute the script on
+     * @param is         script stream
+     * @param type       database the script is written for
+     * @param batchSize  amount of statements sent in one round-trip
+     * @param processor  statement processor, usually {@link me.denarydev.crystal.db.connection.ConnectionFactory#statementProcessor()}
+     * @return amount of executed statements
+     * @see #execute(Connection, InputStream, DatabaseType, int)
+     */
+    @ApiStatus.AvailableSince("2.2.0")
+    public static int execute(final @NotNull Connection connection, final @NotNull InputStream is, final @NotNull DatabaseType type, final int batchSize,
+                              final @NotNull Function<String, String> processor) throws SQLException, IOException {
+        int executed = 0;
+        try (final var statements = statements(is, type); final var statement = connection.createStatement()) {
+            int batched = 0;
+            while (statements.hasNext()) {
+                statement.addBatch(processor.apply(statements.next()));
+                if (++batched >= batchSize) {
+                    statement.executeBatch();
+                    executed += batched;
+                    batched = 0;
                 }
             }
+            if (batched > 0) {
+                statement.executeBatch();
+                executed += batched;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-
-        return queries;
+        return executed;
     }
 }
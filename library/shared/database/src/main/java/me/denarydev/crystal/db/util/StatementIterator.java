@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily splits a SQL script into statements.
+ * <p>
+ * Only the current statement is kept in memory. Semicolons inside quotes and comments do not end a statement,
+ * nor do semicolons inside PostgreSQL dollar-quoted bodies ({@code $$ ... $$}, {@code $tag$ ... $tag$})
+ * when dollar quoting is enabled.
+ * Line comments ({@code --} and {@code #} at the start of a line) are dropped, block comments are kept.
+ * <p>
+ * Read errors are thrown as {@link UncheckedIOException}.
+ *
+ * @author DenaryDev
+ * @since 11:20 18.10.2026
+ */
+@ApiStatus.AvailableSince("2.2.0")
+public final class StatementIterator implements Iterator<String>, Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final boolean backslashEscapes;
+    private final boolean dollarQuotes;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int pushback = -1;
+
+    private final StringBuilder statement = new StringBuilder();
+    private String next;
+    private boolean finished;
+
+    /**
+     * @param reader script source
+     */
+    public StatementIterator(@NotNull Reader reader) {
+        this(reader, false);
+    }
+
+    /**
+     * @param reader           script source
+     * @param backslashEscapes whether a backslash escapes the next character in a string,
+     *                         as in MySQL and MariaDB
+     */
+    public StatementIterator(@NotNull Reader reader, boolean backslashEscapes) {
+        this(reader, backslashEscapes, false);
+    }
+
+    /**
+     * @param reader           script source
+     * @param backslashEscapes whether a backslash escapes the next character in a string,
+     *                         as in MySQL and MariaDB
+     * @param dollarQuotes     whether {@code $tag$} starts a dollar-quoted body, as in PostgreSQL.
+     *                         Other databases allow dollar signs in identifiers
+     */
+    public StatementIterator(@NotNull Reader reader, boolean backslashEscapes, boolean dollarQuotes) {
+        this.reader = reader;
+        this.backslashEscapes = backslashEscapes;
+        this.dollarQuotes = dollarQuotes;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next == null && !this.finished) {
+            try {
+                this.next = readStatement();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.finished = this.next == null;
+        }
+        return this.next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final var result = this.next;
+        this.next = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.finished = true;
+        this.next = null;
+        this.reader.close();
+    }
+
+    private String readStatement() throws IOException {
+        final var builder = this.statement;
+        builder.setLength(0);
+        boolean lineStart = true;
+
+        int c;
+        while ((c = read()) != -1) {
+            final char ch = (char) c;
+            switch (ch) {
+                case ';' -> {
+                    final var result = builder.toString().trim();
+                    builder.setLength(0);
+                    if (!result.isEmpty()) {
+                        return result;
+                    }
+                    lineStart = false;
+                    continue;
+                }
+                case '\'', '"', '`' -> quoted(ch);
+                case '-' -> {
+                    final int n = read();
+                    if (n == '-') {
+                        skipLine();
+                        builder.append('\n');
+                        lineStart = true;
+                        continue;
+                    }
+                    builder.append(ch);
+                    unread(n);
+                }
+                case '#' -> {
+                    if (lineStart) {
+                        skipLine();
+                        builder.append('\n');
+                        continue;
+                    }
+                    builder.append(ch);
+                }
+                case '/' -> {
+                    final int n = read();
+                    if (n == '*') {
+                        blockComment();
+                    } else {
+                        builder.append(ch);
+                        unread(n);
+                    }
+                }
+                case '$' -> {
+                    if (this.dollarQuotes && !identifierPart()) {
+                        dollarQuoted();
+                    } else {
+                        builder.append(ch);
+                    }
+                }
+                default -> builder.append(ch);
+            }
+            lineStart = ch == '\n' || (lineStart && Character.isWhitespace(ch));
+        }
+
+        final var result = builder.toString().trim();
+        builder.setLength(0);
+        return result.isEmpty() ? null : result;
+    }
+
+    private void quoted(char quote) throws IOException {
+        this.statement.append(quote);
+        int c;
+        while ((c = read()) != -1) {
+            this.statement.append((char) c);
+            if (c == quote) {
+                // doubled quote is an escaped quote, anything else closes the literal
+                final int n = read();
+                if (n != quote) {
+                    unread(n);
+                    return;
+                }
+                this.statement.append((char) n);
+            } else if (c == '\\' && this.backslashEscapes && quote != '`') {
+                final int n = read();
+                if (n != -1) {
+                    this.statement.append((char) n);
+                }
+            }
+        }
+    }
+
+    private void blockComment() throws IOException {
+        this.statement.append("/*");
+        int previous = -1;
+        int c;
+        while ((c = read()) != -1) {
+            this.statement.append((char) c);
+            if (previous == '*' && c == '/') {
+                return;
+            }
+            previous = c;
+        }
+    }
+
+    private void dollarQuoted() throws IOException {
+        // read the tag, $$ or $name$; anything else is a plain dollar sign (e.g. positional parameter $1)
+        final var tag = new StringBuilder("$");
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '$') {
+                tag.append('$');
+                break;
+            }
+            if ((!Character.isLetterOrDigit(c) && c != '_') || (tag.length() == 1 && Character.isDigit(c))) {
+                this.statement.append(tag);
+                unread(c);
+                return;
+            }
+            tag.append((char) c);
+        }
+        this.statement.append(tag);
+        if (c == -1) {
+            return;
+        }
+
+        // copy the body until the closing tag
+        final int bodyStart = this.statement.length();
+        while ((c = read()) != -1) {
+            this.statement.append((char) c);
+            if (c == '$' && endsWith(tag, bodyStart)) {
+                return;
+            }
+        }
+    }
+
+    private boolean identifierPart() {
+        // a dollar sign following an identifier is part of it, e.g. a$b
+        final int length = this.statement.length();
+        if (length == 0) {
+            return false;
+        }
+        final char previous = this.statement.charAt(length - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$';
+    }
+
+    private boolean endsWith(CharSequence tag, int from) {
+        final int offset = this.statement.length() - tag.length();
+        if (offset < from) {
+            return false;
+        }
+        for (int i = 0; i < tag.length(); i++) {
+            if (this.statement.charAt(offset + i) != tag.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            // skip comment
+        }
+    }
+
+    private int read() throws IOException {
+        if (this.pushback != -1) {
+            final int c = this.pushback;
+            this.pushback = -1;
+            return c;
+        }
+        if (this.position == this.limit) {
+            this.limit = this.reader.read(this.buffer, 0, BUFFER_SIZE);
+            this.position = 0;
+            if (this.limit <= 0) {
+                this.limit = 0;
+                return -1;
+            }
+        }
+        return this.buffer[this.position++];
+    }
+
+    private void unread(int c) {
+        if (c != -1) {
+            this.pushback = c;
+        }
+    }
+}
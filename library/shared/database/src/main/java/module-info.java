@@ -18,6 +18,13 @@ module crystal.shared.database {
 
     exports me.denarydev.crystal.db;
     exports me.denarydev.crystal.db.settings;
+    exports me.denarydev.crystal.db.batch;
+    exports me.denarydev.crystal.db.cache;
+    exports me.denarydev.crystal.db.concurrent;
     exports me.denarydev.crystal.db.connection;
+    exports me.denarydev.crystal.db.dialect;
+    exports me.denarydev.crystal.db.mapping;
+    exports me.denarydev.crystal.db.metrics;
+    exports me.denarydev.crystal.db.migration;
     exports me.denarydev.crystal.db.util;
 }
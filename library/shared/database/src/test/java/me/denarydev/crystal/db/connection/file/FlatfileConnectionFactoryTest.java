@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.connection.file;
+
+import me.denarydev.crystal.db.DatabaseManager;
+import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.settings.FlatfileConnectionSettings;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author DenaryDev
+ * @since 20:10 18.10.2026
+ */
+public class FlatfileConnectionFactoryTest {
+    private static final int TASKS = 5;
+
+    @Test
+    public void testDirectConnectionOutsideGroupCommit() throws Exception {
+        final var directory = Files.createTempDirectory("crystal-flatfile");
+        final var manager = new DatabaseManager();
+        manager.initialize(settings(directory));
+        try {
+            final var factory = manager.connectionFactory();
+            factory.execute(connection -> connection.createStatement().execute("CREATE TABLE test (id INT PRIMARY KEY)"));
+
+            // keep the writer busy, so the inserts are queued and committed as one group
+            final var release = new CountDownLatch(1);
+            final var blocker = manager.connectAsync(connection -> await(release));
+
+            final var inGroup = new CountDownLatch(1);
+            final var directDone = new CountDownLatch(1);
+            final List<CompletableFuture<Void>> inserts = new ArrayList<>();
+            for (int i = 0; i < TASKS; i++) {
+                final int id = i;
+                inserts.add(manager.connectAsync(connection -> {
+                    assertTrue(factory.connection() instanceof NonClosableConnection);
+                    try (final var statement = connection.prepareStatement("INSERT INTO test (id) VALUES (?)")) {
+                        statement.setInt(1, id);
+                        statement.executeUpdate();
+                    }
+                    if (id == 0) {
+                        inGroup.countDown();
+                        await(directDone);
+                    }
+                }));
+            }
+            release.countDown();
+            blocker.join();
+
+            assertTrue(inGroup.await(10, TimeUnit.SECONDS));
+            try (final var direct = factory.connection()) {
+                assertFalse(direct instanceof NonClosableConnection);
+                direct.setAutoCommit(false);
+                direct.rollback();
+                direct.commit();
+                direct.setAutoCommit(true);
+            } finally {
+                directDone.countDown();
+            }
+
+            CompletableFuture.allOf(inserts.toArray(new CompletableFuture[0])).join();
+            final int count = manager.<Integer>queryAsync(connection -> {
+                try (final var result = connection.createStatement().executeQuery("SELECT COUNT(*) FROM test")) {
+                    result.next();
+                    return result.getInt(1);
+                }
+            }).join();
+            assertEquals(TASKS, count);
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static FlatfileConnectionSettings settings(Path directory) {
+        return new FlatfileConnectionSettings() {
+            @Override
+            public Path dataFolder() {
+                return directory;
+            }
+
+            @Override
+            public String pluginName() {
+                return "Test";
+            }
+
+            @Override
+            public DatabaseType databaseType() {
+                return DatabaseType.SQLITE;
+            }
+
+            @Override
+            public Logger logger() {
+                return LoggerFactory.getLogger("Test");
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.dialect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author DenaryDev
+ * @since 19:10 18.10.2026
+ */
+public class StatementProcessorTest {
+
+    @Test
+    public void testIdentifierQuotes() {
+        final var mysql = StatementProcessor.quoting('`');
+        final var postgres = StatementProcessor.quoting('"');
+
+        assertEquals("SELECT `name` FROM `users`", mysql.translate("SELECT 'name' FROM 'users'"));
+        assertEquals("SELECT \"name\" FROM \"users\"", postgres.translate("SELECT 'name' FROM 'users'"));
+        assertEquals("SELECT `it's`", mysql.translate("SELECT 'it''s'"));
+        assertEquals("SELECT \"a\"\"b\"", postgres.translate("SELECT 'a\"b'"));
+        // unterminated quote runs to the end of the statement
+        assertEquals("SELECT `name`", mysql.translate("SELECT 'name"));
+    }
+
+    @Test
+    public void testDialectQuotesAreKept() {
+        final var processor = new StatementProcessor('"', Map.of("LIKE", "ILIKE"), Set.of("value"));
+
+        assertEquals("SELECT \"like 'x'\" FROM `value`", processor.translate("SELECT \"like 'x'\" FROM `value`"));
+        assertEquals("SELECT \"a\"\"like\"", processor.translate("SELECT \"a\"\"like\""));
+    }
+
+    @Test
+    public void testCommentsAreKept() {
+        final var processor = new StatementProcessor('`', Map.of("LIKE", "ILIKE"), Set.of("value"));
+
+        assertEquals("SELECT 1 -- 'name' like value\nFROM `t`", processor.translate("SELECT 1 -- 'name' like value\nFROM 't'"));
+        assertEquals("SELECT /* 'name' like value */ `value`", processor.translate("SELECT /* 'name' like value */ value"));
+        assertEquals("SELECT 1 /* unterminated 'x'", processor.translate("SELECT 1 /* unterminated 'x'"));
+    }
+
+    @Test
+    public void testWholeWordKeywords() {
+        final var processor = new StatementProcessor('`', Map.of("LIKE", "ILIKE"), Set.of("value"));
+
+        assertEquals("WHERE `name` ILIKE ? AND likes = 1", processor.translate("WHERE 'name' like ? AND likes = 1"));
+        assertEquals("WHERE unlike_value = 1", processor.translate("WHERE unlike_value = 1"));
+        assertEquals("SELECT `value`, `Value`, value_id, value2", processor.translate("SELECT value, Value, value_id, value2"));
+        assertEquals("SELECT t.`value` FROM t", processor.translate("SELECT t.value FROM t"));
+    }
+
+    @Test
+    public void testCache() {
+        final var processor = new StatementProcessor('`', Map.of(), Set.of(), 2);
+
+        final var first = processor.apply("SELECT 'a'");
+        assertSame(first, processor.apply("SELECT 'a'"));
+        processor.apply("SELECT 'b'");
+        processor.apply("SELECT 'c'");
+        assertEquals("SELECT `a`", processor.apply("SELECT 'a'"));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.migration;
+
+import me.denarydev.crystal.db.DatabaseManager;
+import me.denarydev.crystal.db.DatabaseType;
+import me.denarydev.crystal.db.settings.FlatfileConnectionSettings;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * @author DenaryDev
+ * @since 20:40 18.10.2026
+ */
+public class DataMigratorTest {
+
+    @Test
+    public void testSkipsSchemaHistory() throws Exception {
+        final var scripts = Files.createTempDirectory("crystal-scripts");
+        Files.createDirectories(scripts.resolve("db"));
+        Files.writeString(scripts.resolve("db/V1__create_users.sql"), "CREATE TABLE 'users' ('id' INT PRIMARY KEY, 'name' VARCHAR(32));");
+        final var source = settings(Files.createTempDirectory("crystal-source"), DatabaseType.SQLITE);
+        final var target = settings(Files.createTempDirectory("crystal-target"), DatabaseType.H2);
+
+        try (final var classLoader = new URLClassLoader(new URL[]{scripts.toUri().toURL()}, null)) {
+            final var sourceManager = new DatabaseManager();
+            sourceManager.initialize(source);
+            try {
+                sourceManager.migrate(classLoader, "db");
+                sourceManager.connectionFactory().execute(connection -> {
+                    try (final var statement = connection.prepareStatement("INSERT INTO users (id, name) VALUES (?, ?)")) {
+                        for (int i = 0; i < 10; i++) {
+                            statement.setInt(1, i);
+                            statement.setString(2, "user" + i);
+                            statement.addBatch();
+                        }
+                        return statement.executeBatch();
+                    }
+                });
+            } finally {
+                sourceManager.shutdown();
+            }
+
+            final var targetManager = new DatabaseManager();
+            targetManager.initialize(target);
+            try {
+                targetManager.migrate(classLoader, "db");
+            } finally {
+                targetManager.shutdown();
+            }
+        }
+
+        final var copied = new DataMigrator(source, target).migrate();
+        assertEquals(10L, (long) copied.get("users"));
+        assertFalse(copied.containsKey("test" + SchemaMigrator.HISTORY_TABLE_SUFFIX));
+        assertEquals(1, copied.size());
+    }
+
+    private static FlatfileConnectionSettings settings(Path directory, DatabaseType type) {
+        return new FlatfileConnectionSettings() {
+            @Override
+            public Path dataFolder() {
+                return directory;
+            }
+
+            @Override
+            public String pluginName() {
+                return "Test";
+            }
+
+            @Override
+            public DatabaseType databaseType() {
+                return type;
+            }
+
+            @Override
+            public Logger logger() {
+                return LoggerFactory.getLogger("Test");
+            }
+        };
+    }
+}
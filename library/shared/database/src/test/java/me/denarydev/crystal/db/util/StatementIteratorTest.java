@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2024 DenaryDev
+ *
+ * Use of this source code is governed by an MIT-style
+ * license that can be found in the LICENSE file or at
+ * https://opensource.org/licenses/MIT.
+ */
+package me.denarydev.crystal.db.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author DenaryDev
+ * @since 19:25 18.10.2026
+ */
+public class StatementIteratorTest {
+
+    @Test
+    public void testStatements() {
+        assertEquals(List.of("CREATE TABLE a (id INT)", "INSERT INTO a VALUES (1)"),
+            split("CREATE TABLE a (id INT);\n\n  INSERT INTO a VALUES (1);  ;\n", false));
+        assertEquals(List.of("SELECT 1"), split("SELECT 1", false));
+        assertEquals(List.of(), split(" ;\n; ", false));
+    }
+
+    @Test
+    public void testQuotes() {
+        assertEquals(List.of("INSERT INTO a VALUES ('x;y', 'it''s;')", "SELECT \"a;b\" FROM `c;d`"),
+            split("INSERT INTO a VALUES ('x;y', 'it''s;');SELECT \"a;b\" FROM `c;d`;", false));
+    }
+
+    @Test
+    public void testLineComments() {
+        assertEquals(List.of("SELECT 1", "SELECT 2"), split("-- header; comment\nSELECT 1;\n# mysql; comment\n  # indented; comment\nSELECT 2;", false));
+        assertEquals(List.of("SELECT 1 \n+ 1"), split("SELECT 1 -- one;\n+ 1;", false));
+        // only a comment at the start of a line
+        assertEquals(List.of("SELECT a#b"), split("SELECT a#b;", false));
+    }
+
+    @Test
+    public void testBlockComments() {
+        assertEquals(List.of("SELECT 1 /* keep; this */", "SELECT 2"), split("SELECT 1 /* keep; this */;SELECT 2;", false));
+    }
+
+    @Test
+    public void testDollarQuotes() {
+        final var script = """
+            CREATE FUNCTION f() RETURNS INT AS $$ BEGIN RETURN 1; END; $$ LANGUAGE plpgsql;
+            SELECT $1;
+            DO $body$ a; $$ b; $body$;
+            """;
+        assertEquals(List.of("CREATE FUNCTION f() RETURNS INT AS $$ BEGIN RETURN 1; END; $$ LANGUAGE plpgsql", "SELECT $1", "DO $body$ a; $$ b; $body$"),
+            split(script, false, true));
+        // dollar signs inside identifiers don't start a dollar-quoted body
+        assertEquals(List.of("SELECT a$b$ FROM t", "SELECT 2"), split("SELECT a$b$ FROM t;SELECT 2;", false, true));
+    }
+
+    @Test
+    public void testDollarSignsWithoutDollarQuotes() {
+        assertEquals(List.of("SELECT $tag$ a", "b $tag$", "SELECT $$"), split("SELECT $tag$ a; b $tag$;SELECT $$;", false));
+    }
+
+    @Test
+    public void testBackslashEscapes() {
+        final var script = "INSERT INTO a VALUES ('a\\';b');SELECT `c\\`;";
+        assertEquals(List.of("INSERT INTO a VALUES ('a\\';b')", "SELECT `c\\`"), split(script, true));
+        assertEquals(List.of("INSERT INTO a VALUES ('a\\'", "b');SELECT `c\\`;"), split(script, false));
+    }
+
+    @Test
+    public void testLargeScript() {
+        final var script = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            script.append("INSERT INTO a VALUES (").append(i).append(", 'value;").append(i).append("');\n");
+        }
+        final var statements = split(script.toString(), false);
+        assertEquals(2000, statements.size());
+        assertEquals("INSERT INTO a VALUES (1999, 'value;1999')", statements.get(1999));
+    }
+
+    @Test
+    public void testExhausted() {
+        final var iterator = new StatementIterator(new StringReader("SELECT 1;"));
+        assertEquals("SELECT 1", iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    private static List<String> split(String script, boolean backslashEscapes) {
+        return split(script, backslashEscapes, false);
+    }
+
+    private static List<String> split(String script, boolean backslashEscapes, boolean dollarQuotes) {
+        final var statements = new ArrayList<String>();
+        new StatementIterator(new StringReader(script), backslashEscapes, dollarQuotes).forEachRemaining(statements::add);
+        return statements;
+    }
+}